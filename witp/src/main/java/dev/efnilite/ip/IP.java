@@ -6,6 +6,8 @@ import dev.efnilite.ip.api.events.Handler;
 import dev.efnilite.ip.config.Configuration;
 import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.GeneratorScheduler;
+import dev.efnilite.ip.generator.JumpPlanner;
 import dev.efnilite.ip.hook.FloodgateHook;
 import dev.efnilite.ip.hook.HoloHook;
 import dev.efnilite.ip.hook.MultiverseHook;
@@ -16,8 +18,11 @@ import dev.efnilite.ip.internal.style.DefaultStyleType;
 import dev.efnilite.ip.legacy.LegacyFolderMigration;
 import dev.efnilite.ip.player.ParkourUser;
 import dev.efnilite.ip.reward.RewardReader;
+import dev.efnilite.ip.schematic.SchematicWatcher;
 import dev.efnilite.ip.session.chat.ChatHandler;
 import dev.efnilite.ip.util.sql.SQLManager;
+import dev.efnilite.ip.world.BlockPlacer;
+import dev.efnilite.ip.world.ChunkTickets;
 import dev.efnilite.ip.world.WorldDivider;
 import dev.efnilite.ip.world.WorldHandler;
 import dev.efnilite.vilib.ViPlugin;
@@ -52,6 +57,10 @@ public final class IP extends ViPlugin {
     private static Registry registry;
     private static WorldDivider divider;
     private static WorldHandler worldHandler;
+    private static GeneratorScheduler generatorScheduler;
+    private static BlockPlacer blockPlacer;
+    private static ChunkTickets chunkTickets;
+    private static SchematicWatcher schematicWatcher;
     private static Configuration configuration;
 
     @Nullable
@@ -166,10 +175,30 @@ public final class IP extends ViPlugin {
         worldHandler = new WorldHandler();
         worldHandler.createWorld();
 
+        // ----- Generators -----
+
+        generatorScheduler = new GeneratorScheduler();
+        generatorScheduler.start();
+
+        blockPlacer = new BlockPlacer();
+        blockPlacer.start();
+
+        chunkTickets = new ChunkTickets();
+
+        divider.start();
+
+        // ----- Schematics -----
+
+        schematicWatcher = new SchematicWatcher();
+        if (Option.HOT_RELOAD_SCHEMATICS) {
+            schematicWatcher.start();
+        }
+
         // ----- Events -----
 
         registerListener(new Handler());
         registerListener(new ChatHandler());
+        registerListener(chunkTickets);
         registerCommand("ip", new ParkourCommand());
 
         // ----- Metrics -----
@@ -193,6 +222,28 @@ public final class IP extends ViPlugin {
             ParkourUser.unregister(user, true, false, false);
         }
 
+        if (generatorScheduler != null) {
+            generatorScheduler.stop();
+        }
+
+        JumpPlanner.shutdown();
+
+        if (divider != null) {
+            divider.stop();
+        }
+
+        if (blockPlacer != null) { // place all remaining changes before the world gets deleted
+            blockPlacer.stop();
+        }
+
+        if (chunkTickets != null) {
+            chunkTickets.releaseAll();
+        }
+
+        if (schematicWatcher != null) {
+            schematicWatcher.stop();
+        }
+
         // write all IP gamemodes
         Gamemodes.DEFAULT.getLeaderboard().write(false);
 
@@ -201,8 +252,7 @@ public final class IP extends ViPlugin {
         }
 
         if (divider != null) { // somehow this can be null despite it only ever being set to a new instance?
-            World world = worldHandler.getWorld();
-            if (world != null) {
+            for (World world : worldHandler.getWorlds()) {
                 for (Player player : world.getPlayers()) {
                     player.kickPlayer("Server is restarting");
                 }
@@ -271,6 +321,22 @@ public final class IP extends ViPlugin {
         return sqlManager;
     }
 
+    public static GeneratorScheduler getGeneratorScheduler() {
+        return generatorScheduler;
+    }
+
+    public static BlockPlacer getBlockPlacer() {
+        return blockPlacer;
+    }
+
+    public static ChunkTickets getChunkTickets() {
+        return chunkTickets;
+    }
+
+    public static SchematicWatcher getSchematicWatcher() {
+        return schematicWatcher;
+    }
+
     public static WorldDivider getDivider() {
         return divider;
     }
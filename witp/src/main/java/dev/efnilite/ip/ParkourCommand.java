@@ -3,6 +3,7 @@ package dev.efnilite.ip;
 import dev.efnilite.ip.api.Gamemode;
 import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.SharedCourse;
 import dev.efnilite.ip.leaderboard.Leaderboard;
 import dev.efnilite.ip.menu.Menus;
 import dev.efnilite.ip.menu.community.SingleLeaderboardMenu;
@@ -35,6 +36,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @SuppressWarnings("deprecation")
 public class ParkourCommand extends ViCommand {
@@ -89,6 +91,12 @@ public class ParkourCommand extends ViCommand {
                     IP.getConfiguration().reload();
                     Option.init(false);
 
+                    if (Option.HOT_RELOAD_SCHEMATICS) {
+                        IP.getSchematicWatcher().start();
+                    } else {
+                        IP.getSchematicWatcher().stop();
+                    }
+
                     Util.send(sender, IP.PREFIX + "Reloaded all config files in " + Time.timerEnd("reloadIP") + "ms!");
                     return true;
                 }
@@ -126,6 +134,17 @@ public class ParkourCommand extends ViCommand {
                     Util.send(sender, IP.PREFIX + "Your players' data has been migrated in " + Time.timerEnd("migrate") + "ms!");
                     return true;
                 }
+                case "plots" -> {
+                    if (!sender.hasPermission(ParkourOption.ADMIN.getPermission())) {
+                        sender.sendMessage(defaultLocale, "other.no_do");
+                        return true;
+                    }
+                    Util.send(sender, "<dark_gray>----------- &4&lPlots <dark_gray>-----------");
+                    for (String line : IP.getDivider().getStatistics()) {
+                        Util.send(sender, "&7" + line);
+                    }
+                    return true;
+                }
             }
             if (player == null) {
                 return true;
@@ -198,6 +217,7 @@ public class ParkourCommand extends ViCommand {
                     Util.send(player, "<red>/ip schematic pos2 <dark_gray>- &7Set the second position of your selection");
                     Util.send(player, "<red>/ip schematic save <dark_gray>- &7Save your selection to a schematic file");
                     Util.send(player, "<red>/ip schematic paste <file> <dark_gray>- &7Paste a schematic file");
+                    Util.send(player, "<red>/ip schematic stats <dark_gray>- &7View the memory usage of schematics");
                     Util.send(player, "");
                     Util.send(player, "<dark_gray>&nHave any questions or need help? Join the Discord!");
                     return true;
@@ -276,6 +296,11 @@ public class ParkourCommand extends ViCommand {
                         Util.send(player, IP.PREFIX + "Position 2 was set to " + Locations.toString(player.getLocation(), true));
                         return true;
                     }
+                    case "stats" -> {
+                        Util.send(player, "<dark_gray>----------- &4&lSchematics <dark_gray>-----------");
+                        Util.send(player, "&7" + SchematicCache.getStatistics());
+                        return true;
+                    }
                     case "save" -> {
                         if (!cooldown(sender, "schematic-save", 2500)) {
                             return true;
@@ -454,6 +479,12 @@ public class ParkourCommand extends ViCommand {
                     Util.send(sender, IP.PREFIX + "Successfully reset the high score of " + finalName + " in memory and the files.");
                 }
 
+                return true;
+            } else if (args[0].equalsIgnoreCase("course") && sender.hasPermission(ParkourOption.ADMIN.getPermission())) {
+                if (!cooldown(sender, "course", 2500)) {
+                    return true;
+                }
+                course(sender, args[1], ThreadLocalRandom.current().nextLong());
                 return true;
             } else if (args[0].equalsIgnoreCase("leaderboard")) {
 
@@ -486,10 +517,44 @@ public class ParkourCommand extends ViCommand {
                     Util.send(sender, IP.PREFIX + "Pasted schematic " + name);
                     return true;
                 }
+            } else if (args[0].equalsIgnoreCase("course") && sender.hasPermission(ParkourOption.ADMIN.getPermission())) {
+                if (!cooldown(sender, "course", 2500)) {
+                    return true;
+                }
+
+                long seed;
+                try {
+                    seed = Long.parseLong(args[2]);
+                } catch (NumberFormatException ex) { // allow words as seeds
+                    seed = args[2].hashCode();
+                }
+                course(sender, args[1], seed);
+                return true;
             }
         }
         return true;
     }
+
+    // starts a shared course for everyone that is playing, or stops it
+    private void course(CommandSender sender, String action, long seed) {
+        if (action.equalsIgnoreCase("stop")) {
+            int stopped = SharedCourse.stop(ParkourUser.getActivePlayers());
+            Util.send(sender, IP.PREFIX + "Stopped the shared course of " + stopped + " player(s).");
+            return;
+        }
+
+        if (!action.equalsIgnoreCase("everyone")) {
+            Util.send(sender, IP.PREFIX + "Usage: /ip course <everyone/stop> [seed]");
+            return;
+        }
+
+        SharedCourse course = SharedCourse.start(ParkourUser.getActivePlayers(), seed);
+        if (course == null) {
+            Util.send(sender, IP.PREFIX + "There are no players that can play a shared course!");
+            return;
+        }
+        Util.send(sender, IP.PREFIX + "Everyone that is playing is now racing on the same course with seed " + seed + "!");
+    }
     
     @Override
     public List<String> tabComplete(CommandSender sender, String[] args) {
@@ -512,6 +577,8 @@ public class ParkourCommand extends ViCommand {
                 completions.add("schematic");
                 completions.add("reload");
                 completions.add("migrate");
+                completions.add("plots");
+                completions.add("course");
                 completions.add("reset");
                 completions.add("recoverinventory");
             }
@@ -523,7 +590,7 @@ public class ParkourCommand extends ViCommand {
                     completions.add(pp.getName());
                 }
             } else if (args[0].equalsIgnoreCase("schematic") && sender.hasPermission(ParkourOption.ADMIN.getPermission())) {
-                completions.addAll(Arrays.asList("wand", "pos1", "pos2", "save", "paste"));
+                completions.addAll(Arrays.asList("wand", "pos1", "pos2", "save", "paste", "stats"));
             } else if (args[0].equalsIgnoreCase("forcejoin") && sender.hasPermission(ParkourOption.ADMIN.getPermission())) {
                 completions.add("nearest");
                 completions.add("everyone");
@@ -541,6 +608,9 @@ public class ParkourCommand extends ViCommand {
                 for (Player pl : Bukkit.getOnlinePlayers()) {
                     completions.add(pl.getName());
                 }
+            } else if (args[0].equalsIgnoreCase("course") && sender.hasPermission(ParkourOption.ADMIN.getPermission())) {
+                completions.add("everyone");
+                completions.add("stop");
             }
             return completions(args[1], completions);
         } else {
@@ -570,6 +640,8 @@ public class ParkourCommand extends ViCommand {
             Util.send(sender, "<gray>/ip schematic <dark_gray>- Create a schematic");
             Util.send(sender, "<gray>/ip reload <dark_gray>- Reloads the messages-v3.yml file");
             Util.send(sender, "<gray>/ip migrate <dark_gray>- Migrate your Json files to MySQL");
+            Util.send(sender, "<gray>/ip plots <dark_gray>- View the usage of plots in the parkour world");
+            Util.send(sender, "<gray>/ip course <everyone/stop> [seed] <dark_gray>- Lets everyone that is playing race on the same course");
             Util.send(sender, "<gray>/ip reset <everyone/player> <dark_gray>- Resets all highscores. <red>This can't be recovered!");
             Util.send(sender, "<gray>/ip forcejoin <everyone/nearest/player> <dark_gray>- Forces a specific player, the nearest or everyone to join");
             Util.send(sender, "<gray>/ip forceleave <everyone/nearest/player> <dark_gray>- Forces a specific player, the nearest or everyone to leave");
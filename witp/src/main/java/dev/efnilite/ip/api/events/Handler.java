@@ -4,6 +4,7 @@ import dev.efnilite.ip.IP;
 import dev.efnilite.ip.ParkourCommand;
 import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.DefaultGenerator;
 import dev.efnilite.ip.menu.Menus;
 import dev.efnilite.ip.player.ParkourPlayer;
 import dev.efnilite.ip.player.ParkourUser;
@@ -32,7 +33,6 @@ import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.ApiStatus;
 
 import java.util.HashMap;
-import java.util.UUID;
 
 /**
  * Internal event handler
@@ -80,7 +80,7 @@ public class Handler implements EventWatcher {
             }
 
             ParkourPlayer.joinDefault(player);
-        } else if (player.getWorld().getUID().equals(IP.getWorldHandler().getWorld().getUID())) {
+        } else if (IP.getWorldHandler().isParkourWorld(player.getWorld())) {
             World fallback = Bukkit.getWorld(IP.getConfiguration().getString("config", "world.fall-back"));
             if (fallback != null) {
                 // If players who left in the world end up in the world itself while not being a player
@@ -88,7 +88,7 @@ public class Handler implements EventWatcher {
             } else {
                 IP.logging().warn("No backup worlds have been set! A random one will be selected for " + playerName);
                 for (World last : Bukkit.getWorlds()) {
-                    if (!(last.getName().equals(Option.WORLD_NAME))) {
+                    if (!IP.getWorldHandler().isParkourWorld(last)) {
                         Util.send(player, IP.PREFIX + "<red>There was an error while trying to find the parkour world.");
                         player.teleport(last.getSpawnLocation(), PlayerTeleportEvent.TeleportCause.PLUGIN);
                         return;
@@ -275,19 +275,43 @@ public class Handler implements EventWatcher {
         }
     }
 
+    @EventHandler(ignoreCancelled = true)
+    public void move(PlayerMoveEvent event) {
+        if (!Option.MOVE_EVENT_DETECTION) {
+            return;
+        }
+
+        // only check when the player moves to another block
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null || (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ())) {
+            return;
+        }
+
+        if (!IP.getWorldHandler().isParkourWorld(to.getWorld())) {
+            return;
+        }
+
+        ParkourPlayer player = ParkourPlayer.getPlayer(event.getPlayer());
+        if (player != null && player.getGenerator() instanceof DefaultGenerator generator) {
+            generator.checkProgress(to);
+        }
+    }
+
     @EventHandler
     public void onSwitch(PlayerChangedWorldEvent event) {
         Player player = event.getPlayer();
         ParkourUser user = ParkourUser.getUser(player);
-        UUID parkourWorld = IP.getWorldHandler().getWorld().getUID();
+        boolean fromParkour = IP.getWorldHandler().isParkourWorld(event.getFrom());
+        boolean toParkour = IP.getWorldHandler().isParkourWorld(player.getWorld());
 
         // joining world will kick player if they aren't registered to prevent teleporting to players, exception for players with op
-        if (player.getWorld().getUID() == parkourWorld && user == null && !player.isOp()) {
+        if (toParkour && user == null && !player.isOp()) {
             player.kickPlayer("");
         }
 
-        // leaving world will unregister player
-        if (event.getFrom().getUID() == parkourWorld && user != null && player.getTicksLived() > 100) {
+        // leaving the parkour worlds will unregister player, moving between them (e.g. when spectating) doesn't
+        if (fromParkour && !toParkour && user != null && player.getTicksLived() > 100) {
             ParkourUser.unregister(user, false, false, true);
         }
     }
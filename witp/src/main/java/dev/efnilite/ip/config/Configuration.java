@@ -93,8 +93,7 @@ public class Configuration {
         RewardReader.readRewards(files.get("rewards"));
 
         if (schematics()) {
-            // read schematics again
-            SchematicCache.invalidate();
+            // read schematics again, the current ones are used until all have been read
             SchematicCache.read();
         }
     }
@@ -141,7 +140,6 @@ public class Configuration {
                             stream.close();
                         }
 
-                        SchematicCache.invalidate();
                         SchematicCache.read();
                         IP.logging().info("Downloaded all schematics");
                     } catch (FileAlreadyExistsException ex) {
@@ -3,6 +3,7 @@ package dev.efnilite.ip.config;
 import dev.efnilite.ip.IP;
 import dev.efnilite.ip.ParkourOption;
 import dev.efnilite.ip.player.ParkourUser;
+import dev.efnilite.ip.player.scoreboard.ScoreboardTemplate;
 import dev.efnilite.ip.util.Util;
 import dev.efnilite.vilib.inventory.item.Item;
 import dev.efnilite.vilib.util.Strings;
@@ -74,6 +75,8 @@ public class Locales {
                     } catch (IOException throwable) {
                         IP.logging().stack("Error while trying to read locale files", "restart/reload your server", throwable);
                     }
+
+                    ScoreboardTemplate.invalidate();
                 })
                 .run();
     }
@@ -2,6 +2,7 @@ package dev.efnilite.ip.config;
 
 import dev.efnilite.ip.IP;
 import dev.efnilite.ip.ParkourOption;
+import dev.efnilite.ip.generator.base.DefaultGeneratorChances;
 import dev.efnilite.ip.util.Util;
 import dev.efnilite.vilib.particle.ParticleData;
 import org.bukkit.Location;
@@ -52,6 +53,7 @@ public class Option {
     // Worlds
     public static boolean DELETE_ON_RELOAD;
     public static String WORLD_NAME;
+    public static int WORLD_SHARDS;
 
     public static Location GO_BACK_LOC;
 
@@ -63,6 +65,7 @@ public class Option {
         initEnums();
         initGeneration();
         initAdvancedGeneration();
+        DefaultGeneratorChances.buildTables();
 
         GO_BACK_LOC = Util.parseLocation(config.getString("bungeecord.go-back"));
         String[] axes = config.getString("bungeecord.go-back-axes").split(",");
@@ -76,6 +79,7 @@ public class Option {
         // Worlds
         DELETE_ON_RELOAD = config.getBoolean("world.delete-on-reload");
         WORLD_NAME = config.getString("world.name");
+        WORLD_SHARDS = Math.max(1, config.getInt("world.shards"));
 
         if (!WORLD_NAME.matches("[a-zA-Z0-9/._-]+")) {
             IP.logging().stack("Invalid world name!", "world names need to match regex \"[a-zA-Z0-9/._-]+\"");
@@ -274,6 +278,16 @@ public class Option {
 
     public static double BORDER_SIZE;
     public static int GENERATOR_CHECK;
+    public static int BLOCK_PLACEMENT_BUDGET;
+    public static int CLEANUP_BUDGET;
+    public static boolean GHOST_MODE;
+    public static boolean MOVE_EVENT_DETECTION;
+    public static boolean HOT_RELOAD_SCHEMATICS;
+    public static boolean LAZY_SCHEMATICS;
+    public static int SCHEMATIC_MEMORY;
+    public static int ISLAND_POOL_SIZE;
+    public static int CHUNK_PREWARM;
+    public static int PLOT_CHUNK_RADIUS;
     public static double HEIGHT_GAP;
     public static double MULTIPLIER;
 
@@ -284,6 +298,16 @@ public class Option {
 
     private static void initAdvancedGeneration() {
         GENERATOR_CHECK = generation.getInt("advanced.generator-check");
+        BLOCK_PLACEMENT_BUDGET = generation.getInt("advanced.block-placement-budget");
+        CLEANUP_BUDGET = generation.getInt("advanced.cleanup-budget");
+        GHOST_MODE = generation.getBoolean("advanced.ghost-mode");
+        MOVE_EVENT_DETECTION = generation.getBoolean("advanced.move-event-detection");
+        HOT_RELOAD_SCHEMATICS = generation.getBoolean("advanced.hot-reload-schematics");
+        LAZY_SCHEMATICS = generation.getBoolean("advanced.lazy-schematics");
+        SCHEMATIC_MEMORY = generation.getInt("advanced.schematic-memory");
+        ISLAND_POOL_SIZE = generation.getInt("advanced.island.pool-size");
+        CHUNK_PREWARM = generation.getInt("advanced.chunk-prewarm");
+        PLOT_CHUNK_RADIUS = generation.getInt("advanced.plot-chunk-radius");
         HEIGHT_GAP = generation.getDouble("advanced.height-gap");
         MULTIPLIER = generation.getDouble("advanced.maxed-multiplier");
 
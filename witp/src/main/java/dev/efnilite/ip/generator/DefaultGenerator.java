@@ -7,10 +7,11 @@ import dev.efnilite.ip.api.Gamemodes;
 import dev.efnilite.ip.api.events.BlockGenerateEvent;
 import dev.efnilite.ip.api.events.PlayerFallEvent;
 import dev.efnilite.ip.api.events.PlayerScoreEvent;
-import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
 import dev.efnilite.ip.generator.base.DefaultGeneratorBase;
 import dev.efnilite.ip.generator.base.Direction;
+import dev.efnilite.ip.generator.data.AreaData;
+import dev.efnilite.ip.generator.data.PositionIndexBuffer;
 import dev.efnilite.ip.generator.settings.GeneratorOption;
 import dev.efnilite.ip.internal.gamemode.DefaultGamemode;
 import dev.efnilite.ip.leaderboard.Leaderboard;
@@ -23,30 +24,29 @@ import dev.efnilite.ip.reward.RewardString;
 import dev.efnilite.ip.schematic.Schematic;
 import dev.efnilite.ip.schematic.SchematicAdjuster;
 import dev.efnilite.ip.schematic.SchematicCache;
+import dev.efnilite.ip.schematic.SchematicPaste;
 import dev.efnilite.ip.session.Session;
 import dev.efnilite.ip.util.Util;
 import dev.efnilite.vilib.particle.ParticleData;
 import dev.efnilite.vilib.particle.Particles;
 import dev.efnilite.vilib.util.Locations;
-import dev.efnilite.vilib.util.Numbers;
-import dev.efnilite.vilib.util.Task;
 import dev.efnilite.vilib.vector.Vector3D;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.type.Fence;
 import org.bukkit.block.data.type.GlassPane;
 import org.bukkit.block.data.type.Slab;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.entity.Player;
 import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The class that generates the parkour, which each {@link ParkourPlayer} has.
@@ -55,18 +55,15 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public class DefaultGenerator extends DefaultGeneratorBase {
 
-    private Material currentSpecial = null;
-    private Material previousSpecial = null;
-
     /**
      * The amount of blocks that will trail the player's current index.
      */
     public int blockTrail = 2;
 
     /**
-     * The task used in checking the player's current location
+     * Whether this generator has been registered to the {@link GeneratorScheduler}
      */
-    protected BukkitRunnable task;
+    protected boolean ticking = false;
 
     /**
      * Whether this generator has been stopped
@@ -95,9 +92,19 @@ public class DefaultGenerator extends DefaultGeneratorBase {
     protected List<Block> schematicBlocks = new ArrayList<>();
 
     /**
-     * The count total. This is always bigger (or the same) than the positionIndexPlayer
+     * The paste of the current structure, which may still be placing blocks.
+     */
+    protected @Nullable SchematicPaste schematicPaste;
+
+    /**
+     * Value of {@link #schematicEnd} when there is no schematic.
+     */
+    protected static final long NO_SCHEMATIC_END = Long.MIN_VALUE;
+
+    /**
+     * The packed coordinates of the red wool block of the spawned structure, see {@link PositionIndexBuffer#pack(int, int, int)}.
      */
-    protected int positionIndexTotal = 0;
+    protected long schematicEnd = NO_SCHEMATIC_END;
 
     /**
      * The player's current position index.
@@ -105,9 +112,42 @@ public class DefaultGenerator extends DefaultGeneratorBase {
     protected int lastPositionIndexPlayer = -1;
 
     /**
-     * A map which stores all blocks and their number values. The first block generated will have a value of 0.
+     * The max amount of blocks that are stored in the position index at once.
+     * Leads are limited to 64, so this leaves plenty of room for the trail.
+     */
+    protected static final int POSITION_INDEX_CAPACITY = 128;
+
+    /**
+     * Stores all blocks and their number values. The first block generated will have a value of 0.
+     * The total amount of generated blocks is always bigger (or the same) than the player's position index.
+     */
+    protected final PositionIndexBuffer positionIndex = new PositionIndexBuffer(POSITION_INDEX_CAPACITY);
+
+    /**
+     * The block data of the blocks in the position index, only used with ghost blocks.
+     * Indexed by position index modulo {@link #POSITION_INDEX_CAPACITY}.
+     */
+    protected final BlockData[] ghostBlocks = new BlockData[POSITION_INDEX_CAPACITY];
+
+    /**
+     * Plans the upcoming jumps off the main thread.
+     */
+    protected final JumpPlanner planner = new JumpPlanner(this);
+
+    /**
+     * The shared course this generator replays, or null if this generator plans its own jumps.
+     */
+    protected SharedCourse course;
+
+    /**
+     * The index of the next jump of {@link #course}.
+     */
+    protected int courseIndex = 0;
+
+    /**
+     * Whether the random and planner are reseeded at the start of every run, see {@link #setSeed(long)} and {@link #clearSeed()}.
      */
-    protected final LinkedHashMap<Block, Integer> positionIndexMap = new LinkedHashMap<>();
+    private final RunSeed runSeed = new RunSeed();
 
     /**
      * Creates a new ParkourGenerator instance
@@ -143,45 +183,7 @@ public class DefaultGenerator extends DefaultGeneratorBase {
             return;
         }
 
-        Leaderboard leaderboard = getGamemode().getLeaderboard();
-
-        String title = Util.translate(player.player, Locales.getString(player.getLocale(), "scoreboard.title", true));
-        List<String> lines = new ArrayList<>();
-
-        Score top = null, rank = null;
-        if (leaderboard != null) {
-
-            // only get score at rank if lines contains variables
-            if (Util.listContains(lines, "topscore", "topplayer")) {
-                top = leaderboard.getScoreAtRank(1);
-            }
-
-            rank = leaderboard.get(player.getUUID());
-        }
-
-        // set generic score if score is not found
-        top = top == null ? new Score("?", "?", "?", 0) : top;
-        rank = rank == null ? new Score("?", "?", "?", 0) : rank;
-
-        // update lines
-        for (String line : Locales.getStringList(player.getLocale(), "scoreboard.lines", true)) {
-            line = Util.translate(player.player, line); // add support for PAPI placeholders in scoreboard
-
-            lines.add(line
-                    .replace("%score%", Integer.toString(score))
-                    .replace("%time%", stopwatch.toString())
-                    .replace("%highscore%", Integer.toString(rank.score()))
-                    .replace("%topscore%", Integer.toString(top.score()))
-                    .replace("%topplayer%", top.name()).replace("%session%", getSession().getSessionId()));
-        }
-
-        player.board.updateTitle(title
-                .replace("%score%", Integer.toString(score))
-                .replace("%time%", stopwatch.toString())
-                .replace("%highscore%", Integer.toString(rank.score()))
-                .replace("%topscore%", Integer.toString(top.score()))
-                .replace("%topplayer%", top.name()).replace("%session%", getSession().getSessionId()));
-        player.board.updateLines(lines);
+        player.scoreboardRenderer.render(player.board, player, this);
     }
 
     @Override
@@ -253,53 +255,34 @@ public class DefaultGenerator extends DefaultGeneratorBase {
         }
     }
 
+    /**
+     * Takes the next planned jump and returns its block. Jump types are ignored, see {@link #generate()}.
+     * <p>
+     * Note: this consumes the next jump, so calling it again returns the block after it.
+     *
+     * @return the next block, or an empty list if planning is waiting for a schematic to be completed.
+     */
     @Override
     public List<Block> selectBlocks() {
-        int dy = getRandomChance(heightChances);
-        int gap = getRandomChance(distanceChances);
-
-        // handle special jumps that depend on the previous block type
-        if (previousSpecial != null) {
-            switch (previousSpecial) { // adjust for special jumps
-                case PACKED_ICE -> // ice
-                        gap += 0.5;
-                case QUARTZ_SLAB -> // slab
-                        dy = Math.min(dy, 0);
-                case GLASS_PANE -> // pane
-                        gap -= 0.5;
-            }
-
-            // set previous special to null to avoid it lasting every instance
-            previousSpecial = null;
-        }
-
-        // handle special jumps that depend on the current block type
-        if (currentSpecial != null) {
-            switch (currentSpecial) {
-                case OAK_FENCE -> {
-                    dy = Math.min(dy, 0);
-                    gap -= 1;
-                }
-            }
-
-            currentSpecial = null;
+        JumpPlanner.Jump jump = nextJump();
+        if (jump == null) {
+            return Collections.emptyList();
         }
 
-        if (dy > 0 && gap < 2) {
-            gap = 2;
-        }
-
-        return List.of(selectNext(mostRecentBlock, gap, dy));
+        heading = jump.heading();
+        return List.of(blockSpawn.getWorld().getBlockAt(jump.x(), jump.y(), jump.z()));
     }
 
     /**
-     * Selects the next block that will continue the parkour.
+     * Calculates the offset to the next block.
      * This is done by choosing a random value for the sideways movement.
      * Based on this sideways movement, a value for forward movement will be chosen.
      * This is done to ensure players are able to complete the jump.
+     * <p>
+     * Only uses the provided arguments, so this can be called from any thread.
      *
-     * @param   current
-     *          The current location to check from.
+     * @param   heading
+     *          The heading of the parkour.
      *
      * @param   range
      *          The range that should be checked.
@@ -307,29 +290,12 @@ public class DefaultGenerator extends DefaultGeneratorBase {
      * @param   dy
      *          The difference in height.
      *
-     * @return a randomly selected block.
+     * @param   random
+     *          The random to use.
+     *
+     * @return the offset from the current block, rotated to match the heading.
      */
-    protected Block selectNext(Location current, int range, int dy) {
-        // calculate the player's location as parameter form to make it easier to detect
-        // when a player is near the edge of the playable area
-        double[][] progress = calculateParameterization();
-
-        // calculate recommendations for new heading
-        List<Vector3D> recommendations = updateHeading(progress);
-
-        if (!recommendations.isEmpty()) {
-            heading = new Vector3D(0, 0, 0);
-
-            // add all recommendations to heading.
-            // this will allow the heading to become diagonal in case it reaches a corner:
-            // if north and east are recommended, the heading of the parkour will go north-east.
-            for (Vector3D recommendation : recommendations) {
-                heading.add(recommendation);
-            }
-        }
-
-        dy = updateHeight(progress, dy);
-
+    public Vector calculateOffset(Vector3D heading, int range, int dy, Random random) {
         // the adjusted dy, used to get the updated max range
         int ady = dy;
 
@@ -345,8 +311,8 @@ public class DefaultGenerator extends DefaultGeneratorBase {
         if (-adjustedRange + 1 < adjustedRange) { // prevent illegal random args
 
             // make sure df is always 1 by making sure adjustedRange > ds
-            // +1 to follow exclusivity of upper bound
-            ds = random.nextInt(-adjustedRange + 1, adjustedRange);
+            // picks from -adjustedRange + 1 (inclusive) to adjustedRange (exclusive)
+            ds = -adjustedRange + 1 + random.nextInt(2 * adjustedRange - 1);
         }
 
         // if selection angle is reduced, half the current sideways step
@@ -363,15 +329,38 @@ public class DefaultGenerator extends DefaultGeneratorBase {
 
         Vector offset = new Vector(df, dy, ds);
 
-        // update current loc
-        Location clone = current.clone();
-
         // add all offsets to a vector and rotate it to match current direction
-        offset.rotateAroundY(Util.angle(Direction.translate(Option.HEADING), heading));
+        return offset.rotateAroundY(Util.angle(Direction.translate(Option.HEADING), heading));
+    }
 
-        clone.add(offset);
+    /**
+     * Calculates the new heading, based on the recommendations of {@link #updateHeading(double[][])}.
+     *
+     * @param   progress
+     *          The 2-dimensional array resulting from {@link #calculateParameterization()}
+     *
+     * @param   current
+     *          The current heading
+     *
+     * @return the new heading, or the current heading if there are no recommendations.
+     */
+    public Vector3D calculateHeading(double[][] progress, Vector3D current) {
+        // calculate recommendations for new heading
+        List<Vector3D> recommendations = updateHeading(progress);
 
-        return clone.getBlock();
+        if (recommendations.isEmpty()) {
+            return current;
+        }
+
+        Vector3D updated = new Vector3D(0, 0, 0);
+
+        // add all recommendations to heading.
+        // this will allow the heading to become diagonal in case it reaches a corner:
+        // if north and east are recommended, the heading of the parkour will go north-east.
+        for (Vector3D recommendation : recommendations) {
+            updated.add(recommendation);
+        }
+        return updated;
     }
 
     /**
@@ -382,6 +371,26 @@ public class DefaultGenerator extends DefaultGeneratorBase {
      * @return a 2-dimensional array where the first array index is used to specify x, y and z and the second used to specify the type.
      */
     public double[][] calculateParameterization() {
+        return calculateParameterization(mostRecentBlock.getX(), mostRecentBlock.getY(), mostRecentBlock.getZ());
+    }
+
+    /**
+     * Calculates the position of the provided block in a parameter form.
+     * Only reads the zone, so this can be called from any thread.
+     *
+     * @param   x
+     *          The x coordinate of the block
+     *
+     * @param   y
+     *          The y coordinate of the block
+     *
+     * @param   z
+     *          The z coordinate of the block
+     *
+     * @return a 2-dimensional array where the first array index is used to specify x, y and z and the second used to specify the type.
+     * @see #calculateParameterization()
+     */
+    public double[][] calculateParameterization(double x, double y, double z) {
         // the total dimensions
         int dx = zone.getDimensions().getWidth();
         int dy = zone.getDimensions().getHeight();
@@ -389,9 +398,9 @@ public class DefaultGenerator extends DefaultGeneratorBase {
 
         // the relative x, y and z coordinates
         // relative being from the min point of the selection zone
-        double relativeX = mostRecentBlock.getX() - zone.getMinimumPoint().getX();
-        double relativeY = mostRecentBlock.getY() - zone.getMinimumPoint().getY();
-        double relativeZ = mostRecentBlock.getZ() - zone.getMinimumPoint().getZ();
+        double relativeX = x - zone.getMinimumPoint().getX();
+        double relativeY = y - zone.getMinimumPoint().getY();
+        double relativeZ = z - zone.getMinimumPoint().getZ();
 
         // get progress along axes
         // tx = 0 means that the player is at the same x coordinate as the min point (origin)
@@ -510,21 +519,8 @@ public class DefaultGenerator extends DefaultGeneratorBase {
 
     @Override
     public void startTick() {
-        task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (stopped) {
-                    this.cancel();
-                    return;
-                }
-
-                tick();
-            }
-        };
-        Task.create(IP.getPlugin())
-                .repeat(option(GeneratorOption.INCREASED_TICK_ACCURACY) ? 1 : Option.GENERATOR_CHECK)
-                .execute(task)
-                .run();
+        IP.getGeneratorScheduler().register(this, option(GeneratorOption.INCREASED_TICK_ACCURACY) ? 1 : Option.GENERATOR_CHECK);
+        ticking = true;
     }
 
     /**
@@ -550,17 +546,33 @@ public class DefaultGenerator extends DefaultGeneratorBase {
             return;
         }
 
-        Location belowPlayer = playerLocation.clone().subtract(0, 1, 0);
-        Block blockBelowPlayer = belowPlayer.getBlock(); // Get the block below
+        if (!Option.MOVE_EVENT_DETECTION) { // polling fallback, otherwise progress is checked on movement
+            checkProgress(playerLocation);
+        }
+    }
 
-        if (blockBelowPlayer.getType() == Material.AIR) {
-            if (belowPlayer.subtract(0, 0.5, 0).getBlock().getType() == Material.AIR) {
-                return;
-            }
-            blockBelowPlayer = belowPlayer.getBlock();
+    /**
+     * Checks whether the player has landed on a new block, and handles scoring and generation if they have.
+     * The block below the player is resolved with the position index, so no blocks have to be read from the world.
+     *
+     * @param   playerLocation
+     *          The location of the player
+     */
+    public void checkProgress(Location playerLocation) {
+        if (!ticking || playerLocation.getWorld() != playerSpawn.getWorld()) {
+            return;
         }
 
-        if (schematicBlocks.contains(blockBelowPlayer) && blockBelowPlayer.getType() == Material.RED_WOOL && !deleteStructure) { // Structure deletion check
+        int x = playerLocation.getBlockX();
+        int z = playerLocation.getBlockZ();
+
+        // check the block below the player, and the block below that if the player is standing on a block that's not full
+        int below = (int) Math.floor(playerLocation.getY() - 1);
+        int lower = (int) Math.floor(playerLocation.getY() - 1.5);
+
+        if (!deleteStructure && schematicEnd != NO_SCHEMATIC_END // Structure deletion check
+                && (schematicPaste == null || schematicPaste.isComplete()) // only score structures that have been placed completely
+                && (schematicEnd == PositionIndexBuffer.pack(x, below, z) || schematicEnd == PositionIndexBuffer.pack(x, lower, z))) {
             for (int i = 0; i < 10; i++) {
                 score();
             }
@@ -571,10 +583,13 @@ public class DefaultGenerator extends DefaultGeneratorBase {
             return;
         }
 
-        if (!positionIndexMap.containsKey(blockBelowPlayer)) {
+        int currentIndex = positionIndex.indexOf(x, below, z); // current index of the player
+        if (currentIndex == -1) {
+            currentIndex = positionIndex.indexOf(x, lower, z);
+        }
+        if (currentIndex == -1) {
             return;
         }
-        int currentIndex = positionIndexMap.get(blockBelowPlayer); // current index of the player
         int deltaFromLast = currentIndex - lastPositionIndexPlayer;
 
         if (deltaFromLast <= 0) { // the player is actually making progress and not going backwards (current index is higher than the previous)
@@ -589,19 +604,15 @@ public class DefaultGenerator extends DefaultGeneratorBase {
 
         int blockLead = profile.getValue("blockLead").asInt();
 
-        int deltaCurrentTotal = positionIndexTotal - currentIndex; // delta between current index and total
+        int deltaCurrentTotal = positionIndex.getTotal() - currentIndex; // delta between current index and total
         if (deltaCurrentTotal <= blockLead) {
             generate(blockLead - deltaCurrentTotal + 1); // generate the remaining amount so it will match
         }
         lastPositionIndexPlayer = currentIndex;
 
         // delete trailing blocks
-        for (Block block : new ArrayList<>(positionIndexMap.keySet())) {
-            int index = positionIndexMap.get(block);
-            if (currentIndex - index > blockTrail) {
-                block.setType(Material.AIR);
-                positionIndexMap.remove(block);
-            }
+        while (!positionIndex.isEmpty() && currentIndex - positionIndex.getOldestIndex() > blockTrail) {
+            clearBlock(positionIndex.pollOldest());
         }
 
         if (deleteStructure) { // deletes the structure if the player goes to the next block (reason why it's last)
@@ -629,21 +640,33 @@ public class DefaultGenerator extends DefaultGeneratorBase {
     public void reset(boolean regenerate) {
         if (!regenerate) {
             stopped = true;
-            if (task == null) {// incomplete setup as task is the last thing to start
+            if (!ticking) { // incomplete setup as ticking is the last thing to start
                 IP.logging().warn("Incomplete joining setup: there has probably been an error somewhere. Please report this error to the developer!");
                 IP.logging().warn("You don't have to report this warning.");
             } else {
-                task.cancel();
+                IP.getGeneratorScheduler().unregister(this);
+                ticking = false;
+            }
+        }
+
+        if (!regenerate && !ghost) { // the player is leaving, so the plot is cleared in the background by WorldDivider#leave
+            List<Block> remaining = new ArrayList<>(data != null ? data.blocks() : Collections.emptyList());
+            while (!positionIndex.isEmpty()) {
+                long packed = positionIndex.pollOldest();
+                remaining.add(blockSpawn.getWorld().getBlockAt(PositionIndexBuffer.unpackX(packed), PositionIndexBuffer.unpackY(packed), PositionIndexBuffer.unpackZ(packed)));
             }
+            remaining.addAll(schematicBlocks);
+            schematicBlocks.clear();
+
+            data = new AreaData(remaining);
         }
 
-        for (Block block : positionIndexMap.keySet()) {
-            block.setType(Material.AIR);
+        while (!positionIndex.isEmpty()) {
+            clearBlock(positionIndex.pollOldest());
         }
 
         lastPositionIndexPlayer = 0;
-        positionIndexTotal = 0;
-        positionIndexMap.clear();
+        positionIndex.clear();
 
         waitForSchematicCompletion = false;
         deleteStructure();
@@ -718,118 +741,158 @@ public class DefaultGenerator extends DefaultGeneratorBase {
             return;
         }
 
-        int type = getRandomChance(defaultChances); // 0 = normal, 1 = structures, 2 = special
-
-        if (type == 1) {
-            type = schematicCooldown == 0 && profile.getValue("useSchematic").asBoolean() ? type : Numbers.random(0, 2) * 2;
+        int index = courseIndex;
+        JumpPlanner.Jump jump = nextJump();
+        if (jump == null) {
+            return;
         }
 
-        switch (type) {
+        heading = jump.heading();
+        Block selectedBlock = blockSpawn.getWorld().getBlockAt(jump.x(), jump.y(), jump.z());
+
+        switch (jump.type()) { // 0 = normal, 1 = structures, 2 = special
             case 0, 2 -> {
                 BlockData next;
 
-                if (type == 2 && profile.getValue("useSpecialBlocks").asBoolean()) { // if special
-                    int value = getRandomChance(specialChances);
-                    switch (value) {
-                        // ice
-                        case 0 -> next = Material.PACKED_ICE.createBlockData();
-                        // slab
-                        case 1 -> {
-                            next = Material.QUARTZ_SLAB.createBlockData();
-                            ((Slab) next).setType(Slab.Type.BOTTOM);
-                        }
-                        // pane
-                        case 2 -> next = Material.WHITE_STAINED_GLASS_PANE.createBlockData();
-                        // fence
-                        case 3 -> next = Material.OAK_FENCE.createBlockData();
-                        // ???
-                        default -> {
-                            next = Material.STONE.createBlockData();
-                            IP.logging().stack("Invalid special block ID " + value, new IllegalArgumentException());
-                        }
-                    }
+                if (jump.special() != null) { // if special
+                    next = jump.special().createBlockData();
 
-                    currentSpecial = next.getMaterial();
+                    if (next instanceof Slab slab) {
+                        slab.setType(Slab.Type.BOTTOM);
+                    }
                 } else {
                     next = selectBlockData();
                 }
 
-                List<Block> blocks = selectBlocks();
-                if (blocks.isEmpty()) {
-                    return;
-                }
-
-                Block selectedBlock = blocks.get(0);
-                setBlock(selectedBlock, next);
-                new BlockGenerateEvent(selectedBlock, this, player).call();
-
-                positionIndexMap.put(selectedBlock, positionIndexTotal);
-                positionIndexTotal++;
-
-                mostRecentBlock = selectedBlock.getLocation().clone();
-
-                particles(List.of(selectedBlock));
-
-                if (schematicCooldown > 0) {
-                    schematicCooldown--;
-                }
-
-                previousSpecial = next.getMaterial();
+                placeBlock(selectedBlock, next);
             }
             case 1 -> {
-                File folder = new File(IP.getPlugin().getDataFolder() + "/schematics/");
-                List<File> files = Arrays.asList(folder.listFiles((dir, name) -> name.contains("parkour-")));
-                File file = null;
-                if (!files.isEmpty()) {
-                    boolean passed = true;
-                    while (passed) {
-                        file = files.get(random.nextInt(files.size()));
-                        if (profile.getValue("schematicDifficulty").asDouble() == 0) {
-                            profile.setSetting("schematicDifficulty", "0.2");
-                        }
-                        if (Util.getDifficulty(file.getName()) < profile.getValue("schematicDifficulty").asDouble()) {
-                            passed = false;
-                        }
+                String name = course != null ? course.getSchematic(index, this::selectSchematic) : selectSchematic();
+                Schematic schematic = name == null ? null : SchematicCache.getSchematic(name);
+                if (schematic == null) {
+                    // the cache may still be loading on startup, so don't report missing structures then
+                    if (SchematicCache.isReady()) {
+                        IP.logging().error("No structures to choose from!");
                     }
-                } else {
-                    IP.logging().error("No structures to choose from!");
-                    generate(); // generate if no schematic is found
-                    return;
-                }
-                Schematic schematic = SchematicCache.getSchematic(file.getName());
 
-                schematicCooldown = 20;
-                List<Block> blocks = selectBlocks();
-                if (blocks.isEmpty()) {
+                    // place a normal block instead and continue planning from there
+                    placeBlock(selectedBlock, selectBlockData());
+                    completeSchematicJump(index, selectedBlock.getLocation());
                     return;
                 }
 
-                Block selectedBlock = blocks.get(0);
+                schematicCooldown = 20;
 
+                SchematicPaste paste;
                 try {
-                    schematicBlocks = SchematicAdjuster.pasteAdjusted(schematic, selectedBlock.getLocation());
-                    waitForSchematicCompletion = true;
+                    paste = SchematicAdjuster.pasteAdjusted(schematic, selectedBlock.getLocation());
                 } catch (IOException ex) {
                     IP.logging().stack("There was an error while trying to paste schematic " + schematic.getName(), "delete this file and restart the server", ex);
+                    completeSchematicJump(index, selectedBlock.getLocation());
                     reset(true);
                     return;
                 }
 
-                if (schematicBlocks == null || schematicBlocks.isEmpty()) {
+                if (paste == null || paste.getBlocks().isEmpty()) {
                     IP.logging().error("0 blocks found in structure!");
                     player.send("&cThere was an error while trying to paste a structure! If you don't want this to happen again, you can disable them in the menu.");
+                    completeSchematicJump(index, selectedBlock.getLocation());
                     reset(true);
                     return;
                 }
 
-                for (Block schematicBlock : schematicBlocks) {
-                    if (schematicBlock.getType() == Material.RED_WOOL) {
-                        mostRecentBlock = schematicBlock.getLocation();
-                        break;
-                    }
+                schematicPaste = paste;
+                schematicBlocks = paste.getBlocks();
+                waitForSchematicCompletion = true;
+
+                // the blocks may not have been placed yet, so use the schematic data to find the end
+                Block end = paste.find(Material.RED_WOOL);
+                if (end != null) {
+                    mostRecentBlock = end.getLocation();
+                    schematicEnd = PositionIndexBuffer.pack(end.getX(), end.getY(), end.getZ());
                 }
+
+                // the end of the schematic is known, so jumps after it can be planned
+                completeSchematicJump(index, mostRecentBlock);
             }
-            default -> IP.logging().stack("Illegal jump type with id " + type, new IllegalArgumentException());
+            default -> IP.logging().stack("Illegal jump type with id " + jump.type(), new IllegalArgumentException());
+        }
+    }
+
+    /**
+     * Takes the next jump, either from the shared course or from this generator's planner.
+     *
+     * @return the next jump, or null if the next jump can't be planned yet.
+     */
+    protected JumpPlanner.Jump nextJump() {
+        if (course == null) {
+            return planner.poll();
+        }
+
+        JumpPlanner.Jump jump = course.get(courseIndex, blockSpawn);
+        if (jump != null) {
+            courseIndex++;
+        }
+        return jump;
+    }
+
+    /**
+     * Continues planning after a schematic jump.
+     *
+     * @param   index
+     *          The course index of the schematic jump
+     *
+     * @param   end
+     *          The block that the next jump should start from
+     */
+    protected void completeSchematicJump(int index, Location end) {
+        if (course != null) {
+            course.reportSchematicEnd(index, end, blockSpawn, heading);
+        } else {
+            planner.reset(end.toVector(), heading, schematicCooldown);
+        }
+    }
+
+    /**
+     * Selects a random schematic that matches the player's schematic difficulty.
+     *
+     * @return the name of the schematic file, or null if there are no schematics.
+     */
+    protected @Nullable String selectSchematic() {
+        if (profile.getValue("schematicDifficulty").asDouble() == 0) {
+            profile.setSetting("schematicDifficulty", "0.2");
+        }
+
+        return SchematicCache.getIndex().select(profile.getValue("schematicDifficulty").asDouble(), random);
+    }
+
+    /**
+     * Places a normal or special block of the parkour and adds it to the position index.
+     *
+     * @param   selectedBlock
+     *          The block
+     *
+     * @param   next
+     *          The data of the block
+     */
+    protected void placeBlock(Block selectedBlock, BlockData next) {
+        setBlock(selectedBlock, next);
+        new BlockGenerateEvent(selectedBlock, this, player).call();
+
+        if (positionIndex.isFull()) { // shouldn't happen with valid leads, but make sure the oldest block doesn't get lost
+            clearBlock(positionIndex.pollOldest());
+        }
+        int index = positionIndex.add(selectedBlock.getX(), selectedBlock.getY(), selectedBlock.getZ());
+        if (ghost) {
+            ghostBlocks[index & (POSITION_INDEX_CAPACITY - 1)] = next;
+        }
+
+        mostRecentBlock = selectedBlock.getLocation().clone();
+
+        particles(List.of(selectedBlock));
+
+        if (schematicCooldown > 0) {
+            schematicCooldown--;
         }
     }
 
@@ -843,16 +906,11 @@ public class DefaultGenerator extends DefaultGeneratorBase {
         for (int i = 0; i < amount; i++) {
             generate();
         }
-    }
 
-    protected int getRandomChance(HashMap<Integer, Integer> map) {
-        List<Integer> keys = new ArrayList<>(map.keySet());
-        if (keys.isEmpty()) {
-            calculateChances();
-            return 1;
+        // plan the next jumps while the player is busy with these
+        if (course == null) {
+            planner.refill(profile.getValue("blockLead").asInt() + JumpPlanner.PLAN_AHEAD);
         }
-        int index = keys.get(ThreadLocalRandom.current().nextInt(keys.size()));
-        return map.get(index);
     }
 
     /**
@@ -891,23 +949,83 @@ public class DefaultGenerator extends DefaultGeneratorBase {
 
     protected void deleteStructure() {
         for (Block block : schematicBlocks) {
-            block.setType(Material.AIR);
+            IP.getBlockPlacer().setAir(block);
         }
 
         schematicBlocks.clear();
+        schematicPaste = null;
+        schematicEnd = NO_SCHEMATIC_END;
         deleteStructure = false;
         schematicCooldown = 20;
     }
 
+    /**
+     * Sets a block from the position index to air.
+     *
+     * @param   packed
+     *          The packed coordinates, as returned by {@link PositionIndexBuffer#pollOldest()}
+     */
+    protected void clearBlock(long packed) {
+        int x = PositionIndexBuffer.unpackX(packed);
+        int y = PositionIndexBuffer.unpackY(packed);
+        int z = PositionIndexBuffer.unpackZ(packed);
+
+        if (ghost) { // show the actual block again
+            Block block = blockSpawn.getWorld().getBlockAt(x, y, z);
+            sendGhostBlock(block.getLocation(), block.getBlockData());
+            return;
+        }
+
+        IP.getBlockPlacer().setAir(blockSpawn.getWorld(), x, y, z);
+    }
+
     protected void setBlock(Block block, BlockData data) {
-        if (data instanceof Fence || data instanceof GlassPane) {
-            block.setType(data.getMaterial(), true);
-        } else {
-            block.setBlockData(data, false);
+        if (ghost) {
+            sendGhostBlock(block.getLocation(), data);
+            return;
+        }
+
+        // fences and panes need physics to connect to other blocks
+        IP.getBlockPlacer().set(block, data, data instanceof Fence || data instanceof GlassPane);
+    }
+
+    /**
+     * Sends a fake block change to all players and spectators of this session.
+     *
+     * @param   location
+     *          The location of the block
+     *
+     * @param   data
+     *          The block data
+     */
+    protected void sendGhostBlock(Location location, BlockData data) {
+        for (ParkourPlayer viewer : session.getPlayers()) {
+            viewer.player.sendBlockChange(location, data);
+        }
+        for (ParkourSpectator viewer : session.getSpectators()) {
+            viewer.player.sendBlockChange(location, data);
+        }
+    }
+
+    /**
+     * Sends all current ghost blocks to a player, e.g. when a spectator joins.
+     * Does nothing if this generator doesn't use ghost blocks.
+     *
+     * @param   viewer
+     *          The player
+     */
+    public void sendGhostBlocks(Player viewer) {
+        if (!ghost) {
+            return;
         }
 
-        // fixes players receiving delayed update
-        player.player.sendBlockChange(block.getLocation(), data);
+        World world = blockSpawn.getWorld();
+        for (int index = positionIndex.getOldestIndex(); index < positionIndex.getTotal(); index++) {
+            long packed = positionIndex.get(index);
+            Location location = new Location(world, PositionIndexBuffer.unpackX(packed), PositionIndexBuffer.unpackY(packed), PositionIndexBuffer.unpackZ(packed));
+
+            viewer.sendBlockChange(location, ghostBlocks[index & (POSITION_INDEX_CAPACITY - 1)]);
+        }
     }
 
     /**
@@ -925,9 +1043,60 @@ public class DefaultGenerator extends DefaultGeneratorBase {
         blockSpawn = block.clone();
         mostRecentBlock = block.clone();
 
+        courseIndex = 0;
+        boolean reseeded = runSeed.start(value -> { // every run of a seeded generator starts the same course
+            random.setSeed(value);
+            planner.setSeed(value);
+        });
+        if (reseeded) {
+            heading = Direction.translate(Option.HEADING);
+            schematicCooldown = 20;
+        }
+        planner.reset(block.toVector(), heading, schematicCooldown);
         generate(profile.getValue("blockLead").asInt() + 1);
     }
 
+    /**
+     * Sets the seed of this generator. Every run after this call starts with the same course, until {@link #clearSeed()} is called.
+     *
+     * @param   seed
+     *          The seed
+     */
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        planner.setSeed(seed);
+        runSeed.fix(seed);
+    }
+
+    /**
+     * Stops starting every run with the same course. The generator continues from a new random seed.
+     */
+    public void clearSeed() {
+        long seed = runSeed.clear();
+        super.setSeed(seed);
+        planner.setSeed(seed);
+    }
+
+    /**
+     * Makes this generator replay a shared course. Takes effect when the parkour is generated again,
+     * e.g. by calling {@link #reset(boolean)} with true.
+     *
+     * @param   course
+     *          The course, or null to let this generator plan its own jumps again.
+     */
+    public void setCourse(@Nullable SharedCourse course) {
+        this.course = course;
+        this.courseIndex = 0;
+    }
+
+    /**
+     * @return the shared course this generator replays, or null if it plans its own jumps.
+     */
+    public @Nullable SharedCourse getCourse() {
+        return course;
+    }
+
     public int getTotalScore() {
         return totalScore;
     }
@@ -0,0 +1,213 @@
+package dev.efnilite.ip.generator;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.generator.base.ParkourGenerator;
+import dev.efnilite.vilib.util.Task;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Ticks all active {@link ParkourGenerator}s from a single repeating task, instead of every generator having its own.
+ * <p>
+ * Generators that don't need to be checked every tick are spread over tick-phase buckets.
+ * A generator with an interval of 2 is placed in either the even or odd bucket, depending on which has the least generators,
+ * so all checks don't land on the same tick.
+ */
+public class GeneratorScheduler {
+
+    private ParkourGenerator[] generators = new ParkourGenerator[16];
+    private int[] intervals = new int[16];
+    private int[] phases = new int[16];
+    private int size = 0;
+
+    /**
+     * The amount of generators per phase, indexed by interval and then by phase.
+     */
+    private int[][] phaseLoad = new int[0][];
+
+    private long currentTick = 0;
+    private boolean ticking = false;
+    private boolean removedWhileTicking = false;
+
+    private BukkitTask task;
+
+    /**
+     * Starts the repeating task that ticks all generators.
+     */
+    public void start() {
+        if (task != null) {
+            return;
+        }
+
+        task = Task.create(IP.getPlugin())
+                .repeat(1)
+                .execute(this::tick)
+                .run();
+    }
+
+    /**
+     * Stops the repeating task. Registered generators will no longer be ticked.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Registers a generator, which will be ticked once every {@code interval} ticks.
+     * Registering an already registered generator does nothing.
+     *
+     * @param   generator
+     *          The generator
+     *
+     * @param   interval
+     *          The amount of ticks between each tick of this generator. Values below 1 are treated as 1.
+     */
+    public void register(@NotNull ParkourGenerator generator, int interval) {
+        if (indexOf(generator) != -1) {
+            return;
+        }
+
+        interval = Math.max(interval, 1);
+
+        if (size == generators.length) {
+            int capacity = size << 1;
+            generators = Arrays.copyOf(generators, capacity);
+            intervals = Arrays.copyOf(intervals, capacity);
+            phases = Arrays.copyOf(phases, capacity);
+        }
+
+        // pick the least loaded phase for this interval
+        int[] load = getLoad(interval);
+        int phase = 0;
+        for (int i = 1; i < interval; i++) {
+            if (load[i] < load[phase]) {
+                phase = i;
+            }
+        }
+        load[phase]++;
+
+        generators[size] = generator;
+        intervals[size] = interval;
+        phases[size] = phase;
+        size++;
+    }
+
+    /**
+     * Unregisters a generator. It will not be ticked anymore, starting from the next generator in line.
+     *
+     * @param   generator
+     *          The generator
+     */
+    public void unregister(@NotNull ParkourGenerator generator) {
+        int index = indexOf(generator);
+        if (index == -1) {
+            return;
+        }
+
+        getLoad(intervals[index])[phases[index]]--;
+
+        if (ticking) { // don't move generators around while they are being looped over
+            generators[index] = null;
+            removedWhileTicking = true;
+            return;
+        }
+
+        removeAt(index);
+    }
+
+    /**
+     * Returns whether the provided generator is currently registered.
+     *
+     * @param   generator
+     *          The generator
+     *
+     * @return true if it is registered, false if not.
+     */
+    public boolean isRegistered(@NotNull ParkourGenerator generator) {
+        return indexOf(generator) != -1;
+    }
+
+    /**
+     * @return the amount of registered generators.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void tick() {
+        ticking = true;
+
+        // generators registered during this loop will be ticked starting from the next tick
+        int end = size;
+        for (int i = 0; i < end; i++) {
+            ParkourGenerator generator = generators[i];
+            if (generator == null || currentTick % intervals[i] != phases[i]) {
+                continue;
+            }
+
+            try {
+                generator.tick();
+            } catch (Throwable throwable) {
+                IP.logging().stack("Error while ticking generator of session " + generator.getSession().getSessionId(), throwable);
+            }
+        }
+
+        ticking = false;
+        currentTick++;
+
+        if (removedWhileTicking) {
+            removedWhileTicking = false;
+            compact();
+        }
+    }
+
+    private void compact() {
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (generators[i] == null) {
+                continue;
+            }
+            generators[j] = generators[i];
+            intervals[j] = intervals[i];
+            phases[j] = phases[i];
+            j++;
+        }
+        Arrays.fill(generators, j, size, null);
+        size = j;
+    }
+
+    private void removeAt(int index) {
+        int last = size - 1;
+
+        generators[index] = generators[last];
+        intervals[index] = intervals[last];
+        phases[index] = phases[last];
+
+        generators[last] = null;
+        size = last;
+    }
+
+    private int indexOf(ParkourGenerator generator) {
+        for (int i = 0; i < size; i++) {
+            if (generators[i] == generator) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int[] getLoad(int interval) {
+        if (interval >= phaseLoad.length) {
+            phaseLoad = Arrays.copyOf(phaseLoad, interval + 1);
+        }
+        if (phaseLoad[interval] == null) {
+            phaseLoad[interval] = new int[interval];
+        }
+        return phaseLoad[interval];
+    }
+}
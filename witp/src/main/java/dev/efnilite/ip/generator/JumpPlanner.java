@@ -0,0 +1,287 @@
+package dev.efnilite.ip.generator;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.generator.data.ChanceTable;
+import dev.efnilite.vilib.vector.Vector3D;
+import org.bukkit.Material;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Plans the upcoming jumps of a {@link DefaultGenerator} on a worker thread.
+ * <p>
+ * All jump math (chances, heading, rotation) only works with coordinates, so it doesn't need the main thread.
+ * The planner keeps a queue of upcoming jumps, so the main thread only has to take the next jump and set the block.
+ * Planning stops after a schematic jump, since the end of the schematic is only known after it has been pasted.
+ * Use {@link #reset(Vector, Vector3D, int)} to continue planning from there.
+ * <p>
+ * All planners share a small pool of planning threads. The lock of a planner is only held while planning a single jump,
+ * so the main thread never waits for more than one jump when it takes the next one.
+ */
+public class JumpPlanner {
+
+    /**
+     * The amount of jumps that are planned ahead of the player's block lead.
+     */
+    public static final int PLAN_AHEAD = 8;
+
+    private static final int THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "IP Jump Planner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A planned jump.
+     *
+     * @param   type
+     *          The type of jump. 0 = normal, 1 = schematic, 2 = special
+     *
+     * @param   special
+     *          The special block of this jump, or null if this is not a special jump
+     *
+     * @param   x
+     *          The x coordinate of the block
+     *
+     * @param   y
+     *          The y coordinate of the block
+     *
+     * @param   z
+     *          The z coordinate of the block
+     *
+     * @param   heading
+     *          The heading of the parkour after this jump
+     */
+    public record Jump(int type, @Nullable Material special, int x, int y, int z, Vector3D heading) {
+
+    }
+
+    private final DefaultGenerator generator;
+    private final ArrayDeque<Jump> queue = new ArrayDeque<>();
+    private final Random random;
+
+    // state of the last planned jump, only accessed while holding the lock
+    private double x;
+    private double y;
+    private double z;
+    private Vector3D heading;
+    private Material previousSpecial;
+    private int schematicCooldown;
+    private boolean blocked = true;
+
+    // snapshot of the generator's settings, updated on the main thread
+    private ChanceTable defaultChances = ChanceTable.EMPTY;
+    private ChanceTable heightChances = ChanceTable.EMPTY;
+    private ChanceTable distanceChances = ChanceTable.EMPTY;
+    private ChanceTable specialChances = ChanceTable.EMPTY;
+    private boolean useSchematic;
+    private boolean useSpecialBlocks;
+
+    private boolean refillPending = false;
+
+    public JumpPlanner(@NotNull DefaultGenerator generator) {
+        this.generator = generator;
+        this.random = new Random(generator.getSeed());
+    }
+
+    /**
+     * Sets the seed used in planning. Call {@link #reset(Vector, Vector3D, int)} afterwards to discard already planned jumps.
+     *
+     * @param   seed
+     *          The seed
+     */
+    public synchronized void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Discards all planned jumps and starts planning from the provided block.
+     *
+     * @param   from
+     *          The block coordinates of the most recent block
+     *
+     * @param   heading
+     *          The current heading
+     *
+     * @param   schematicCooldown
+     *          The current schematic cooldown
+     */
+    public synchronized void reset(@NotNull Vector from, @NotNull Vector3D heading, int schematicCooldown) {
+        queue.clear();
+
+        this.x = from.getBlockX();
+        this.y = from.getBlockY();
+        this.z = from.getBlockZ();
+        this.heading = heading;
+        this.schematicCooldown = schematicCooldown;
+        this.previousSpecial = null;
+        this.blocked = false;
+
+        update();
+    }
+
+    /**
+     * Takes the next planned jump. If no jump has been planned in time, one is planned on the calling thread.
+     *
+     * @return the next jump, or null if planning is waiting for a schematic to be pasted.
+     */
+    public synchronized @Nullable Jump poll() {
+        if (queue.isEmpty() && !blocked) {
+            plan();
+        }
+        return queue.poll();
+    }
+
+    /**
+     * Asynchronously plans jumps until the provided amount of jumps is queued.
+     * Should be called from the main thread, since it updates the settings used in planning.
+     *
+     * @param   amount
+     *          The amount of jumps that should be queued
+     */
+    public void refill(int amount) {
+        synchronized (this) {
+            if (refillPending || blocked || queue.size() >= amount) {
+                return;
+            }
+            refillPending = true;
+
+            update();
+        }
+
+        try {
+            EXECUTOR.execute(() -> planUntil(amount));
+        } catch (RejectedExecutionException ex) { // plugin is disabling, jumps will be planned when they are polled
+            synchronized (this) {
+                refillPending = false;
+            }
+        }
+    }
+
+    /**
+     * Stops the planning threads. Should only be called when the plugin is disabled.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    // plans one jump at a time, so polling from the main thread can happen in between
+    private void planUntil(int amount) {
+        while (true) {
+            synchronized (this) {
+                if (blocked || queue.size() >= amount) {
+                    refillPending = false;
+                    return;
+                }
+                plan();
+            }
+        }
+    }
+
+    // the generator may switch tables on the main thread, so keep the tables used in this refill
+    private void update() {
+        defaultChances = generator.defaultChances;
+        heightChances = generator.heightChances;
+        distanceChances = generator.distanceChances;
+        specialChances = generator.specialChances;
+        useSchematic = generator.getProfile().getValue("useSchematic").asBoolean();
+        useSpecialBlocks = generator.getProfile().getValue("useSpecialBlocks").asBoolean();
+    }
+
+    private void plan() {
+        int type = getRandomChance(defaultChances); // 0 = normal, 1 = structures, 2 = special
+
+        if (type == 1) {
+            type = schematicCooldown == 0 && useSchematic ? type : random.nextInt(2) * 2;
+        }
+
+        Material currentSpecial = null;
+        if (type == 2 && useSpecialBlocks) {
+            int value = getRandomChance(specialChances);
+            currentSpecial = switch (value) {
+                case 0 -> Material.PACKED_ICE;
+                case 1 -> Material.QUARTZ_SLAB;
+                case 2 -> Material.WHITE_STAINED_GLASS_PANE;
+                case 3 -> Material.OAK_FENCE;
+                default -> {
+                    IP.logging().stack("Invalid special block ID " + value, new IllegalArgumentException());
+                    yield Material.STONE;
+                }
+            };
+        }
+
+        int dy = getRandomChance(heightChances);
+        int gap = getRandomChance(distanceChances);
+
+        // handle special jumps that depend on the previous block type
+        if (previousSpecial != null) {
+            switch (previousSpecial) { // adjust for special jumps
+                case PACKED_ICE -> // ice
+                        gap += 0.5;
+                case QUARTZ_SLAB -> // slab
+                        dy = Math.min(dy, 0);
+                case GLASS_PANE -> // pane
+                        gap -= 0.5;
+            }
+
+            // set previous special to null to avoid it lasting every instance
+            previousSpecial = null;
+        }
+
+        // handle special jumps that depend on the current block type
+        if (currentSpecial == Material.OAK_FENCE) {
+            dy = Math.min(dy, 0);
+            gap -= 1;
+        }
+
+        if (dy > 0 && gap < 2) {
+            gap = 2;
+        }
+
+        double[][] progress = generator.calculateParameterization(x, y, z);
+
+        heading = generator.calculateHeading(progress, heading);
+        dy = generator.updateHeight(progress, dy);
+
+        Vector offset = generator.calculateOffset(heading, gap, dy, random);
+
+        int bx = (int) Math.floor(x + offset.getX());
+        int by = (int) Math.floor(y + offset.getY());
+        int bz = (int) Math.floor(z + offset.getZ());
+
+        queue.add(new Jump(type, currentSpecial, bx, by, bz, heading));
+
+        x = bx;
+        y = by;
+        z = bz;
+
+        if (type == 1) {
+            // the end of the schematic is not known yet
+            blocked = true;
+            schematicCooldown = 20;
+            return;
+        }
+
+        if (schematicCooldown > 0) {
+            schematicCooldown--;
+        }
+
+        previousSpecial = currentSpecial;
+    }
+
+    private int getRandomChance(ChanceTable chances) {
+        if (chances.isEmpty()) {
+            return 1;
+        }
+        return chances.sample(random);
+    }
+}
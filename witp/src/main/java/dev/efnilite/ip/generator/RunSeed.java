@@ -0,0 +1,52 @@
+package dev.efnilite.ip.generator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+
+/**
+ * Decides how the randoms of a {@link DefaultGenerator} are seeded at the start of a run.
+ * While a seed is fixed, every run starts from that seed and is the same course.
+ * Otherwise the randoms continue where the previous run stopped, so every run differs.
+ */
+final class RunSeed {
+
+    private long seed;
+    private boolean fixed = false;
+
+    /**
+     * Makes every following run start from the provided seed.
+     *
+     * @param   seed
+     *          The seed
+     */
+    void fix(long seed) {
+        this.seed = seed;
+        this.fixed = true;
+    }
+
+    /**
+     * Stops starting every run from the same seed.
+     *
+     * @return a new random seed, which the randoms should continue from.
+     */
+    long clear() {
+        this.seed = ThreadLocalRandom.current().nextLong();
+        this.fixed = false;
+        return seed;
+    }
+
+    /**
+     * Starts a run, reseeding the randoms if a seed is fixed.
+     *
+     * @param   reseed
+     *          Sets the seed of the randoms
+     *
+     * @return true if the randoms have been reseeded, false if they continue.
+     */
+    boolean start(LongConsumer reseed) {
+        if (fixed) {
+            reseed.accept(seed);
+        }
+        return fixed;
+    }
+}
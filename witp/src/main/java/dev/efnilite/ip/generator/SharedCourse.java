@@ -0,0 +1,195 @@
+package dev.efnilite.ip.generator;
+
+import dev.efnilite.ip.player.ParkourPlayer;
+import dev.efnilite.vilib.vector.Vector3D;
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A course that is generated once and replayed by multiple {@link DefaultGenerator}s, e.g. for a tournament.
+ * <p>
+ * Jumps are planned by the generator that created the course, using its seed and settings.
+ * They are stored relative to that generator's block spawn, so every other generator can replay them from its own block spawn.
+ * The course is extended lazily, when the player that is the furthest ahead needs the next jump.
+ * <p>
+ * Schematics are chosen and pasted by the first generator that reaches them. The end of the schematic is
+ * reported back to the course, after which the jumps following it can be planned.
+ * Use {@link #start(Collection, long)} to let players race on the same course, e.g. with /ip course.
+ * Only use this on the main thread.
+ */
+public class SharedCourse {
+
+    private final long seed;
+    private final JumpPlanner planner;
+    private final Vector origin;
+
+    private final List<JumpPlanner.Jump> jumps = new ArrayList<>();
+    private final Map<Integer, String> schematics = new HashMap<>();
+    private final Map<Integer, Vector> schematicEnds = new HashMap<>();
+
+    /**
+     * Creates a new shared course.
+     *
+     * @param   host
+     *          The generator whose settings are used to plan the course. Its block spawn is used as origin, so it should be set up.
+     *
+     * @param   seed
+     *          The seed of the course
+     */
+    public SharedCourse(@NotNull DefaultGenerator host, long seed) {
+        this.seed = seed;
+        this.origin = host.blockSpawn.toVector();
+
+        this.planner = new JumpPlanner(host);
+        this.planner.setSeed(seed);
+        this.planner.reset(origin.clone(), host.getHeading(), 20);
+    }
+
+    /**
+     * Starts a shared course for the provided players. The first player whose parkour has been set up hosts the course.
+     * Every player is sent back to their spawn island and replays the course from there.
+     * Players that don't play the default parkour or are still waiting for their island are skipped.
+     *
+     * @param   players
+     *          The players
+     *
+     * @param   seed
+     *          The seed of the course
+     *
+     * @return the course, or null if none of the players can play it.
+     */
+    public static @Nullable SharedCourse start(@NotNull Collection<ParkourPlayer> players, long seed) {
+        List<DefaultGenerator> generators = new ArrayList<>();
+        for (ParkourPlayer player : players) {
+            if (player.getGenerator() instanceof DefaultGenerator generator && generator.blockSpawn != null) {
+                generators.add(generator);
+            }
+        }
+
+        if (generators.isEmpty()) {
+            return null;
+        }
+
+        SharedCourse course = new SharedCourse(generators.get(0), seed);
+        for (DefaultGenerator generator : generators) {
+            generator.setSeed(seed);
+            generator.setCourse(course);
+            generator.reset(true);
+        }
+        return course;
+    }
+
+    /**
+     * Makes the provided players plan their own jumps again, if they were playing a shared course.
+     * Their seed is cleared, so every run after this differs again.
+     *
+     * @param   players
+     *          The players
+     *
+     * @return the amount of players that have left a shared course.
+     */
+    public static int stop(@NotNull Collection<ParkourPlayer> players) {
+        int stopped = 0;
+        for (ParkourPlayer player : players) {
+            if (player.getGenerator() instanceof DefaultGenerator generator && generator.getCourse() != null) {
+                generator.setCourse(null);
+                generator.clearSeed();
+                generator.reset(true);
+                stopped++;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Gets a jump of this course, planning it if it doesn't exist yet.
+     *
+     * @param   index
+     *          The index of the jump, starting from 0
+     *
+     * @param   blockSpawn
+     *          The block spawn of the generator that requests this jump
+     *
+     * @return the jump translated to the provided block spawn, or null if the schematic before it hasn't been completed yet.
+     */
+    public @Nullable JumpPlanner.Jump get(int index, @NotNull Location blockSpawn) {
+        while (jumps.size() <= index) {
+            JumpPlanner.Jump jump = planner.poll();
+            if (jump == null) {
+                return null;
+            }
+
+            jumps.add(new JumpPlanner.Jump(jump.type(), jump.special(),
+                    jump.x() - origin.getBlockX(), jump.y() - origin.getBlockY(), jump.z() - origin.getBlockZ(), jump.heading()));
+        }
+
+        JumpPlanner.Jump jump = jumps.get(index);
+        return new JumpPlanner.Jump(jump.type(), jump.special(),
+                jump.x() + blockSpawn.getBlockX(), jump.y() + blockSpawn.getBlockY(), jump.z() + blockSpawn.getBlockZ(), jump.heading());
+    }
+
+    /**
+     * Gets the schematic used at the provided jump. The first generator to reach the jump chooses it.
+     *
+     * @param   index
+     *          The index of the schematic jump
+     *
+     * @param   chooser
+     *          Chooses the schematic if no schematic has been chosen for this jump yet
+     *
+     * @return the name of the schematic file.
+     */
+    public String getSchematic(int index, @NotNull Supplier<String> chooser) {
+        return schematics.computeIfAbsent(index, k -> chooser.get());
+    }
+
+    /**
+     * Reports the end of a pasted schematic, so the jumps following it can be planned.
+     * Only the first report for a jump is used.
+     *
+     * @param   index
+     *          The index of the schematic jump
+     *
+     * @param   end
+     *          The end block of the schematic
+     *
+     * @param   blockSpawn
+     *          The block spawn of the generator that pasted the schematic
+     *
+     * @param   heading
+     *          The heading after the schematic
+     */
+    public void reportSchematicEnd(int index, @NotNull Location end, @NotNull Location blockSpawn, @NotNull Vector3D heading) {
+        if (schematicEnds.containsKey(index)) {
+            return;
+        }
+
+        Vector relative = end.toVector().subtract(blockSpawn.toVector());
+        schematicEnds.put(index, relative);
+
+        planner.reset(relative.add(origin), heading, 20);
+    }
+
+    /**
+     * @return the seed of this course.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the amount of jumps that have been planned.
+     */
+    public int size() {
+        return jumps.size();
+    }
+}
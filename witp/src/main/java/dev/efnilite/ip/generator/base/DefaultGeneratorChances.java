@@ -1,62 +1,115 @@
 package dev.efnilite.ip.generator.base;
 
 import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.data.ChanceTable;
 import dev.efnilite.ip.generator.settings.GeneratorOption;
 import dev.efnilite.ip.player.ParkourPlayer;
 import dev.efnilite.ip.session.Session;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-
 /**
  * An intermediary class to reduce the amount of clutter in the {@link dev.efnilite.ip.generator.DefaultGenerator} class.
  * This class is mostly used to determine all jump chances.
+ * <p>
+ * The tables only depend on the config, so they are built once by {@link #buildTables()} and shared by all generators.
  */
 public abstract class DefaultGeneratorChances extends ParkourGenerator {
 
+    private static final int[] DISTANCES = { 1, 2, 3, 4 };
+
+    // indexed by whether schematics and special jumps are disabled, see calculateDefault
+    private static ChanceTable[] DEFAULT_TABLES = new ChanceTable[] { ChanceTable.EMPTY, ChanceTable.EMPTY, ChanceTable.EMPTY, ChanceTable.EMPTY };
+    private static ChanceTable HEIGHT_TABLE = ChanceTable.EMPTY;
+    private static ChanceTable SPECIAL_TABLE = ChanceTable.EMPTY;
+    private static ChanceTable NORMAL_DISTANCE_TABLE = ChanceTable.EMPTY;
+    private static ChanceTable MAXED_DISTANCE_TABLE = ChanceTable.EMPTY;
+
+    /**
+     * The adaptive distance tables, indexed by score. Built when a score is first reached.
+     */
+    private static ChanceTable[] ADAPTIVE_DISTANCE_TABLES = new ChanceTable[0];
+
+    /**
+     * How much the chance of a distance should change per point, depending on the player's score
+     */
+    private static double[] ADAPTIVE_DISTANCE_STEPS = new double[4];
+
     /**
      * The player
      */
     public ParkourPlayer player;
 
     /**
-     * The chances of which distance the jump should have
+     * Whether the blocks of this generator are only sent to players, and not placed in the world.
+     * Set on creation, so changing the config doesn't affect generators that are already running.
      */
-    public final HashMap<Integer, Integer> distanceChances;
+    protected final boolean ghost;
 
     /**
-     * Variable to determine how much the chance should be of a jump type, depending on the player's score
+     * The chances of which distance the jump should have
      */
-    public final HashMap<Integer, Double> adaptiveDistanceChances;
+    public volatile ChanceTable distanceChances;
 
     /**
      * The chances of which height the jump should have
      */
-    public final HashMap<Integer, Integer> heightChances;
+    public volatile ChanceTable heightChances;
 
     /**
      * The chances of which type of special jump
      */
-    public final HashMap<Integer, Integer> specialChances;
+    public volatile ChanceTable specialChances;
 
     /**
      * The chances of default jump types: schematic, 'special' (ice, etc.) or normal
      */
-    public final HashMap<Integer, Integer> defaultChances;
+    public volatile ChanceTable defaultChances;
 
     public DefaultGeneratorChances(@NotNull Session session, GeneratorOption... generatorOptions) {
         super(session, generatorOptions);
 
         this.player = session.getPlayers().get(0);
-        this.distanceChances = new HashMap<>();
-        this.heightChances = new HashMap<>();
-        this.specialChances = new HashMap<>();
-        this.defaultChances = new HashMap<>();
-        this.adaptiveDistanceChances = new HashMap<>();
+        this.ghost = Option.GHOST_MODE;
 
         calculateChances();
     }
 
+    /**
+     * Builds the shared chance tables from the config. Should be called every time the config is (re)loaded.
+     */
+    public static void buildTables() {
+        ChanceTable[] defaults = new ChanceTable[4];
+        for (int i = 0; i < defaults.length; i++) {
+            boolean schematics = (i & 1) == 0;
+            boolean special = (i & 2) == 0;
+
+            defaults[i] = new ChanceTable(new int[] { 0, 1, 2 },
+                    new int[] { Option.NORMAL, schematics ? Option.SCHEMATICS : 0, special ? Option.SPECIAL : 0 });
+        }
+        DEFAULT_TABLES = defaults;
+
+        HEIGHT_TABLE = new ChanceTable(new int[] { 1, 0, -1, -2 },
+                new int[] { Option.NORMAL_UP, Option.NORMAL_LEVEL, Option.NORMAL_DOWN, Option.NORMAL_DOWN2 });
+
+        SPECIAL_TABLE = new ChanceTable(new int[] { 0, 1, 2, 3 },
+                new int[] { Option.SPECIAL_ICE, Option.SPECIAL_SLAB, Option.SPECIAL_PANE, Option.SPECIAL_FENCE });
+
+        NORMAL_DISTANCE_TABLE = new ChanceTable(DISTANCES,
+                new int[] { Option.NORMAL_ONE_BLOCK, Option.NORMAL_TWO_BLOCK, Option.NORMAL_THREE_BLOCK, Option.NORMAL_FOUR_BLOCK });
+
+        MAXED_DISTANCE_TABLE = new ChanceTable(DISTANCES,
+                new int[] { Option.MAXED_ONE_BLOCK, Option.MAXED_TWO_BLOCK, Option.MAXED_THREE_BLOCK, Option.MAXED_FOUR_BLOCK });
+
+        double multiplier = Option.MULTIPLIER;
+        ADAPTIVE_DISTANCE_STEPS = new double[] {
+                (Option.MAXED_ONE_BLOCK - Option.NORMAL_ONE_BLOCK) / multiplier,
+                (Option.MAXED_TWO_BLOCK - Option.NORMAL_TWO_BLOCK) / multiplier,
+                (Option.MAXED_THREE_BLOCK - Option.NORMAL_THREE_BLOCK) / multiplier,
+                (Option.MAXED_FOUR_BLOCK - Option.NORMAL_FOUR_BLOCK) / multiplier
+        };
+        ADAPTIVE_DISTANCE_TABLES = new ChanceTable[Math.max((int) multiplier + 1, 0)];
+    }
+
     /**
      * Whether the option is present
      *
@@ -73,7 +126,6 @@ public abstract class DefaultGeneratorChances extends ParkourGenerator {
      * Calculates all chances for every variable
      */
     public void calculateChances() {
-        calculateAdaptiveDistance();
         calculateDefault();
         calculateHeight();
         calculateDistance();
@@ -84,134 +136,74 @@ public abstract class DefaultGeneratorChances extends ParkourGenerator {
      * Calculates the chances of which type of special jump
      */
     public void calculateSpecial() {
-        specialChances.clear();
-
-        int percentage = 0;
-        for (int i = 0; i < Option.SPECIAL_ICE; i++) {
-            specialChances.put(percentage, 0);
-            percentage++;
-        }
-        for (int i = 0; i < Option.SPECIAL_SLAB; i++) {
-            specialChances.put(percentage, 1);
-            percentage++;
-        }
-        for (int i = 0; i < Option.SPECIAL_PANE; i++) {
-            specialChances.put(percentage, 2);
-            percentage++;
-        }
-        for (int i = 0; i < Option.SPECIAL_FENCE; i++) {
-            specialChances.put(percentage, 3);
-            percentage++;
-        }
-    }
-
-    /**
-     * Calculates chances for adaptive distances
-     */
-    public void calculateAdaptiveDistance() {
-        adaptiveDistanceChances.clear();
-
-        double multiplier = Option.MULTIPLIER;
-        adaptiveDistanceChances.put(1, (Option.MAXED_ONE_BLOCK - Option.NORMAL_ONE_BLOCK) / multiplier);
-        adaptiveDistanceChances.put(2, (Option.MAXED_TWO_BLOCK - Option.NORMAL_TWO_BLOCK) / multiplier);
-        adaptiveDistanceChances.put(3, (Option.MAXED_THREE_BLOCK - Option.NORMAL_THREE_BLOCK) / multiplier);
-        adaptiveDistanceChances.put(4, (Option.MAXED_FOUR_BLOCK - Option.NORMAL_FOUR_BLOCK) / multiplier);
+        specialChances = SPECIAL_TABLE;
     }
 
     /**
      * Calculates the chances of default jump types
      */
     public void calculateDefault() {
-        defaultChances.clear();
+        // schematics are pasted in the world, so they can't be used with ghost blocks
+        int index = (option(GeneratorOption.DISABLE_SCHEMATICS) || ghost ? 1 : 0) | (option(GeneratorOption.DISABLE_SPECIAL) ? 2 : 0);
 
-        int percentage = 0;
-        for (int i = 0; i < Option.NORMAL; i++) { // normal
-            defaultChances.put(percentage, 0);
-            percentage++;
-        }
-        if (!option(GeneratorOption.DISABLE_SCHEMATICS)) { // schematics
-            for (int i = 0; i < Option.SCHEMATICS; i++) {
-                defaultChances.put(percentage, 1);
-                percentage++;
-            }
-        }
-        if (!option(GeneratorOption.DISABLE_SPECIAL)) { // special
-            for (int i = 0; i < Option.SPECIAL; i++) {
-                defaultChances.put(percentage, 2);
-                percentage++;
-            }
-        }
+        defaultChances = DEFAULT_TABLES[index];
     }
 
     /**
      * Calculates the chances of height
      */
     public void calculateHeight() {
-        heightChances.clear();
-
-        int percentage = 0;
-        for (int i = 0; i < Option.NORMAL_UP; i++) {
-            heightChances.put(percentage, 1);
-            percentage++;
-        }
-        for (int i = 0; i < Option.NORMAL_LEVEL; i++) {
-            heightChances.put(percentage, 0);
-            percentage++;
-        }
-        for (int i = 0; i < Option.NORMAL_DOWN; i++) {
-            heightChances.put(percentage, -1);
-            percentage++;
-        }
-        for (int i = 0; i < Option.NORMAL_DOWN2; i++) {
-            heightChances.put(percentage, -2);
-            percentage++;
-        }
+        heightChances = HEIGHT_TABLE;
     }
 
     /**
      * Calculates the chances of distance, factoring in if the player uses adaptive difficulty
      */
     public void calculateDistance() {
-        distanceChances.clear();
-
         // If the player uses difficulty, slowly increase the chances of harder jumps (depends on user settings though)
-        int one, two, three, four;
         if (profile.getValue("useScoreDifficulty").asBoolean() && option(GeneratorOption.DISABLE_ADAPTIVE)) {
-
             if (score <= Option.MULTIPLIER) {
-                one = (int) (Option.NORMAL_ONE_BLOCK + (adaptiveDistanceChances.get(1) * score));
-                two = (int) (Option.NORMAL_TWO_BLOCK + (adaptiveDistanceChances.get(2) * score));
-                three = (int) (Option.NORMAL_THREE_BLOCK + (adaptiveDistanceChances.get(3) * score));
-                four = (int) (Option.NORMAL_FOUR_BLOCK + (adaptiveDistanceChances.get(4) * score));
+                distanceChances = getAdaptiveDistanceTable(score);
             } else {
-                one = Option.MAXED_ONE_BLOCK;
-                two = Option.MAXED_TWO_BLOCK;
-                three = Option.MAXED_THREE_BLOCK;
-                four = Option.MAXED_FOUR_BLOCK;
+                distanceChances = MAXED_DISTANCE_TABLE;
             }
         } else {
-            one = Option.NORMAL_ONE_BLOCK;
-            two = Option.NORMAL_TWO_BLOCK;
-            three = Option.NORMAL_THREE_BLOCK;
-            four = Option.NORMAL_FOUR_BLOCK;
+            distanceChances = NORMAL_DISTANCE_TABLE;
         }
+    }
 
-        int percentage = 0;
-        for (int i = 0; i < one; i++) { // regenerate the chances for distance
-            distanceChances.put(percentage, 1);
-            percentage++;
-        }
-        for (int i = 0; i < two; i++) {
-            distanceChances.put(percentage, 2);
-            percentage++;
-        }
-        for (int i = 0; i < three; i++) {
-            distanceChances.put(percentage, 3);
-            percentage++;
+    /**
+     * Gets the adaptive distance table for a score. Scores that result in the same weights share the same table.
+     *
+     * @param   score
+     *          The score, which is at most {@link Option#MULTIPLIER}
+     *
+     * @return the table.
+     */
+    private static ChanceTable getAdaptiveDistanceTable(int score) {
+        ChanceTable[] tables = ADAPTIVE_DISTANCE_TABLES;
+        if (score < 0 || score >= tables.length) {
+            return NORMAL_DISTANCE_TABLE;
         }
-        for (int i = 0; i < four; i++) {
-            distanceChances.put(percentage, 4);
-            percentage++;
+
+        ChanceTable table = tables[score];
+        if (table != null) {
+            return table;
         }
+
+        double[] steps = ADAPTIVE_DISTANCE_STEPS;
+        int[] weights = new int[] {
+                (int) (Option.NORMAL_ONE_BLOCK + (steps[0] * score)),
+                (int) (Option.NORMAL_TWO_BLOCK + (steps[1] * score)),
+                (int) (Option.NORMAL_THREE_BLOCK + (steps[2] * score)),
+                (int) (Option.NORMAL_FOUR_BLOCK + (steps[3] * score))
+        };
+
+        // weights only change every few points, so reuse the previous table if possible
+        ChanceTable previous = score > 0 ? tables[score - 1] : null;
+        table = previous != null && previous.matches(DISTANCES, weights) ? previous : new ChanceTable(DISTANCES, weights);
+
+        tables[score] = table;
+        return table;
     }
-}
\ No newline at end of file
+}
@@ -14,6 +14,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -59,9 +60,15 @@ public abstract class ParkourGenerator {
     protected final Profile profile;
 
     /**
-     * The random for this Thread, which is useful in randomly generating parkour
+     * The random of this generator, which is useful in randomly generating parkour.
+     * Seeded with {@link #seed}, so the same seed will generate the same choices.
      */
-    protected final ThreadLocalRandom random;
+    protected final Random random;
+
+    /**
+     * The seed of {@link #random}
+     */
+    protected long seed;
 
     public ParkourGenerator(@NotNull Session session, GeneratorOption... options) {
         this.session = session;
@@ -69,7 +76,8 @@ public abstract class ParkourGenerator {
 
         this.generatorOptions = Arrays.asList(options);
         this.stopwatch = new Stopwatch();
-        this.random = ThreadLocalRandom.current();
+        this.seed = ThreadLocalRandom.current().nextLong();
+        this.random = new Random(seed);
     }
 
     /**
@@ -174,6 +182,26 @@ public abstract class ParkourGenerator {
         return score;
     }
 
+    /**
+     * Sets the seed of this generator. Generation that happens after this call will be the same for the same seed.
+     *
+     * @param   seed
+     *          The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random.setSeed(seed);
+    }
+
+    /**
+     * Gets the seed of this generator.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
     /**
      * Gets the current heading as {@link Direction}
      *
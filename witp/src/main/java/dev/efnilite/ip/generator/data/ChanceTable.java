@@ -0,0 +1,98 @@
+package dev.efnilite.ip.generator.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An immutable table of weighted values, used to pick jump types, heights, distances, etc.
+ * <p>
+ * Every value gets as many buckets as its weight, so picking a value is a single array lookup.
+ * Weights are small percentages, so the amount of buckets stays around 100.
+ * Since the table can't be changed, it can be shared between generators and threads.
+ */
+public class ChanceTable {
+
+    /**
+     * A table without any values.
+     */
+    public static final ChanceTable EMPTY = new ChanceTable(new int[0], new int[0]);
+
+    private final int[] values;
+    private final int[] weights;
+    private final int[] buckets;
+
+    /**
+     * Creates a new table.
+     *
+     * @param   values
+     *          The values
+     *
+     * @param   weights
+     *          The weight of each value. Values with a weight of 0 or less will never be picked.
+     */
+    public ChanceTable(int[] values, int[] weights) {
+        if (values.length != weights.length) {
+            throw new IllegalArgumentException("Amount of values and weights do not match");
+        }
+
+        this.values = values.clone();
+        this.weights = weights.clone();
+
+        int total = 0;
+        for (int weight : weights) {
+            total += Math.max(weight, 0);
+        }
+
+        this.buckets = new int[total];
+
+        int bucket = 0;
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < weights[i]; j++) {
+                buckets[bucket++] = values[i];
+            }
+        }
+    }
+
+    /**
+     * Picks a random value, using the weights of each value.
+     *
+     * @param   random
+     *          The random
+     *
+     * @return a random value.
+     */
+    public int sample(@NotNull Random random) {
+        return buckets[random.nextInt(buckets.length)];
+    }
+
+    /**
+     * Returns whether this table has the same values and weights as the provided arrays.
+     *
+     * @param   values
+     *          The values
+     *
+     * @param   weights
+     *          The weights
+     *
+     * @return true if they are the same, false if not.
+     */
+    public boolean matches(int[] values, int[] weights) {
+        return Arrays.equals(this.values, values) && Arrays.equals(this.weights, weights);
+    }
+
+    /**
+     * @return true if no value can be picked, false if not.
+     */
+    public boolean isEmpty() {
+        return buckets.length == 0;
+    }
+
+    /**
+     * @return the total weight of this table.
+     */
+    public int size() {
+        return buckets.length;
+    }
+}
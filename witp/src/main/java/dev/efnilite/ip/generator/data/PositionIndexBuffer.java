@@ -0,0 +1,256 @@
+package dev.efnilite.ip.generator.data;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring buffer which maps generated parkour blocks to their position index.
+ * Blocks are stored as packed x/y/z coordinates, so no {@link org.bukkit.block.Block} instances have to be kept or hashed.
+ * <p>
+ * The first block added gets index 0, the next one 1, etc. Looking up the index of a block is O(1) through a
+ * small open-addressing table, and removing the oldest blocks is done in insertion order.
+ */
+public class PositionIndexBuffer {
+
+    /**
+     * Marks an empty slot in the lookup table. Every 64-bit value is a valid packed coordinate,
+     * so empty slots are marked by their value instead of their key, since indices are never negative.
+     */
+    private static final int EMPTY = -1;
+
+    private final int mask;
+    private final long[] ring;
+
+    private final int tableMask;
+    private final long[] keys;
+    private final int[] values;
+
+    /**
+     * The index of the oldest block that is still stored.
+     */
+    private int oldest = 0;
+
+    /**
+     * The total amount of blocks that have been added. The next block will get this index.
+     */
+    private int total = 0;
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param   capacity
+     *          The minimum amount of blocks that can be stored at once. Will be rounded up to a power of 2.
+     */
+    public PositionIndexBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+
+        this.mask = size - 1;
+        this.ring = new long[size];
+
+        // keep load factor at or below 0.5 to keep probing short
+        this.tableMask = (size << 1) - 1;
+        this.keys = new long[size << 1];
+        this.values = new int[size << 1];
+
+        Arrays.fill(values, EMPTY);
+    }
+
+    /**
+     * Packs block coordinates into a single long. Uses 26 bits for x and z and 12 bits for y.
+     *
+     * @param   x
+     *          The x coordinate
+     *
+     * @param   y
+     *          The y coordinate
+     *
+     * @param   z
+     *          The z coordinate
+     *
+     * @return the packed coordinates
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    /**
+     * Adds a block. If the buffer is full, check {@link #isFull()} and remove the oldest block first.
+     *
+     * @param   x
+     *          The x coordinate
+     *
+     * @param   y
+     *          The y coordinate
+     *
+     * @param   z
+     *          The z coordinate
+     *
+     * @return the index given to this block
+     */
+    public int add(int x, int y, int z) {
+        if (isFull()) {
+            throw new IllegalStateException("Position index buffer is full");
+        }
+
+        long packed = pack(x, y, z);
+        int index = total++;
+
+        ring[index & mask] = packed;
+        put(packed, index);
+
+        return index;
+    }
+
+    /**
+     * Gets the index of the block at the provided coordinates.
+     *
+     * @param   x
+     *          The x coordinate
+     *
+     * @param   y
+     *          The y coordinate
+     *
+     * @param   z
+     *          The z coordinate
+     *
+     * @return the index of the block, or -1 if this block is not stored
+     */
+    public int indexOf(int x, int y, int z) {
+        long packed = pack(x, y, z);
+
+        int slot = slot(packed);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == packed) {
+                return values[slot];
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the coordinates of a stored block.
+     *
+     * @param   index
+     *          The index of the block, between {@link #getOldestIndex()} (inclusive) and {@link #getTotal()} (exclusive)
+     *
+     * @return the packed coordinates of the block
+     */
+    public long get(int index) {
+        if (index < oldest || index >= total) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not stored");
+        }
+        return ring[index & mask];
+    }
+
+    /**
+     * Removes the oldest stored block.
+     *
+     * @return the packed coordinates of the removed block
+     */
+    public long pollOldest() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Position index buffer is empty");
+        }
+
+        int index = oldest++;
+        long packed = ring[index & mask];
+
+        // only remove the lookup entry if the same position has not been added again since
+        int slot = find(packed);
+        if (slot != -1 && values[slot] == index) {
+            delete(slot);
+        }
+
+        return packed;
+    }
+
+    /**
+     * Removes all blocks and resets the index counter to 0.
+     */
+    public void clear() {
+        Arrays.fill(values, EMPTY);
+        oldest = 0;
+        total = 0;
+    }
+
+    /**
+     * @return the index of the oldest block that is still stored.
+     */
+    public int getOldestIndex() {
+        return oldest;
+    }
+
+    /**
+     * @return the total amount of blocks that have been added since the last {@link #clear()}.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public int size() {
+        return total - oldest;
+    }
+
+    public boolean isEmpty() {
+        return total == oldest;
+    }
+
+    public boolean isFull() {
+        return size() == ring.length;
+    }
+
+    private void put(long packed, int index) {
+        int slot = slot(packed);
+        while (values[slot] != EMPTY && keys[slot] != packed) {
+            slot = (slot + 1) & tableMask;
+        }
+        keys[slot] = packed;
+        values[slot] = index;
+    }
+
+    private int find(long packed) {
+        int slot = slot(packed);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == packed) {
+                return slot;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    // backward shift deletion, so no tombstones are needed
+    private void delete(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & tableMask;
+        while (values[next] != EMPTY) {
+            int ideal = slot(keys[next]);
+
+            // move the entry into the gap if the gap lies between its ideal slot and its current slot
+            if (((next - ideal) & tableMask) >= ((next - gap) & tableMask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & tableMask;
+        }
+        values[gap] = EMPTY;
+    }
+
+    private int slot(long packed) {
+        long hash = packed * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 40) & tableMask;
+    }
+}
@@ -336,7 +336,7 @@ public class ParkourPlayer extends ParkourUser {
      * @return the ParkourPlayer
      */
     public static @Nullable ParkourPlayer getPlayer(@Nullable Player player) {
-        return player == null ? null : getPlayer(player.getUniqueId());
+        return player == null ? null : players.get(player);
     }
 
     /**
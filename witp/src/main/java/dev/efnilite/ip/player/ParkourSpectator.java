@@ -2,12 +2,8 @@ package dev.efnilite.ip.player;
 
 import dev.efnilite.ip.IP;
 import dev.efnilite.ip.ParkourOption;
-import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
-import dev.efnilite.ip.generator.base.ParkourGenerator;
-import dev.efnilite.ip.leaderboard.Leaderboard;
 import dev.efnilite.ip.player.data.PreviousData;
-import dev.efnilite.ip.player.data.Score;
 import dev.efnilite.ip.session.Session;
 import dev.efnilite.ip.util.Util;
 import dev.efnilite.vilib.util.Task;
@@ -18,9 +14,6 @@ import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Class for spectators of a Session.
  *
@@ -63,49 +56,9 @@ public class ParkourSpectator extends ParkourUser {
         if (board == null) {
             return;
         }
-        ParkourPlayer player = closest;
-        ParkourGenerator generator = player.generator;
-
-        Leaderboard leaderboard = player.getGenerator().getGamemode().getLeaderboard();
-
-        String title = Util.translate(player.player, Locales.getString(player.getLocale(), "scoreboard.title", true));
-        List<String> lines = new ArrayList<>();
-
-        Score top = null, rank = null;
-        if (leaderboard != null) {
-
-            // only get score at rank if lines contains variables
-            if (Util.listContains(lines, "topscore", "topplayer")) {
-                top = leaderboard.getScoreAtRank(1);
-            }
-
-            rank = leaderboard.get(player.getUUID());
-        }
-
-        // set generic score if score is not found
-        top = top == null ? new Score("?", "?", "?", 0) : top;
-        rank = rank == null ? new Score("?", "?", "?", 0) : rank;
-
-
-        // update lines
-        for (String line : Locales.getStringList(player.getLocale(), "scoreboard.lines", true)) {
-            line = Util.translate(player.player, line); // add support for PAPI placeholders in scoreboard
-
-            lines.add(line
-                    .replace("%score%", Integer.toString(generator.getScore()))
-                    .replace("%time%", generator.getStopwatch().toString())
-                    .replace("%highscore%", Integer.toString(rank.score()))
-                    .replace("%topscore%", Integer.toString(top.score()))
-                    .replace("%topplayer%", top.name()).replace("%session%", getSession().getSessionId()));
-        }
 
-        board.updateTitle(title
-                .replace("%score%", Integer.toString(generator.getScore()))
-                .replace("%time%", generator.getStopwatch().toString())
-                .replace("%highscore%", Integer.toString(rank.score()))
-                .replace("%topscore%", Integer.toString(top.score()))
-                .replace("%topplayer%", top.name()).replace("%session%", getSession().getSessionId()));
-        board.updateLines(lines);
+        // show the scoreboard of the player that's being watched
+        scoreboardRenderer.render(board, closest, closest.generator);
     }
 
     /**
@@ -7,6 +7,7 @@ import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
 import dev.efnilite.ip.generator.base.ParkourGenerator;
 import dev.efnilite.ip.player.data.PreviousData;
+import dev.efnilite.ip.player.scoreboard.ScoreboardRenderer;
 import dev.efnilite.ip.session.Session;
 import dev.efnilite.ip.session.chat.ChatType;
 import dev.efnilite.ip.util.Util;
@@ -55,6 +56,11 @@ public abstract class ParkourUser {
      */
     public FastBoard board;
 
+    /**
+     * Renders this user's scoreboard, only sending the lines that have changed
+     */
+    public final ScoreboardRenderer scoreboardRenderer = new ScoreboardRenderer();
+
     /**
      * This user's session id
      */
@@ -0,0 +1,154 @@
+package dev.efnilite.ip.player.scoreboard;
+
+import dev.efnilite.ip.generator.base.ParkourGenerator;
+import dev.efnilite.ip.leaderboard.Leaderboard;
+import dev.efnilite.ip.player.ParkourPlayer;
+import dev.efnilite.ip.player.data.Score;
+import dev.efnilite.ip.player.scoreboard.ScoreboardTemplate.Line;
+import dev.efnilite.ip.player.scoreboard.ScoreboardTemplate.Variable;
+import dev.efnilite.ip.util.Util;
+import dev.efnilite.vilib.lib.fastboard.fastboard.FastBoard;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Renders the scoreboard of a single user.
+ * <p>
+ * Keeps track of the last values of all variables. Only lines that contain a changed variable are rendered again,
+ * and only lines that are actually different are sent to the player.
+ */
+public class ScoreboardRenderer {
+
+    private static final int ALL = ~0;
+
+    private FastBoard board;
+    private ScoreboardTemplate template;
+
+    private final String[] values = new String[Variable.values().length];
+
+    // the last values, to check whether a variable has changed without creating strings
+    private int score = -1;
+    private int highscore = -1;
+    private Score top;
+
+    private String title;
+    private String[] lines = new String[0];
+
+    /**
+     * Updates the board with the values of the provided player and generator.
+     *
+     * @param   board
+     *          The board to update
+     *
+     * @param   player
+     *          The player whose locale, placeholders and high score are used
+     *
+     * @param   generator
+     *          The generator whose score, time and session are used
+     */
+    public void render(@NotNull FastBoard board, @NotNull ParkourPlayer player, @NotNull ParkourGenerator generator) {
+        ScoreboardTemplate template = ScoreboardTemplate.get(player.getLocale());
+
+        int dirty = 0;
+        boolean full = board != this.board || template != this.template;
+        if (full) {
+            this.board = board;
+            this.template = template;
+            this.score = -1;
+            this.highscore = -1;
+            this.top = null;
+            Arrays.fill(values, null);
+            dirty = ALL;
+        }
+
+        int score = generator.getScore();
+        if (score != this.score) {
+            this.score = score;
+            dirty |= set(Variable.SCORE, Integer.toString(score));
+        }
+
+        if (template.uses(Variable.TIME)) {
+            dirty |= set(Variable.TIME, generator.getStopwatch().toString());
+        }
+
+        if (template.uses(Variable.SESSION)) {
+            dirty |= set(Variable.SESSION, generator.getSession().getSessionId());
+        }
+
+        Leaderboard leaderboard = generator.getGamemode().getLeaderboard();
+
+        if (template.uses(Variable.HIGHSCORE)) {
+            Score rank = leaderboard == null ? null : leaderboard.get(player.getUUID());
+            int highscore = rank == null ? 0 : rank.score();
+
+            if (highscore != this.highscore) {
+                this.highscore = highscore;
+                dirty |= set(Variable.HIGHSCORE, Integer.toString(highscore));
+            }
+        }
+
+        if (template.uses(Variable.TOPSCORE) || template.uses(Variable.TOPPLAYER)) {
+            Score top = leaderboard == null ? null : leaderboard.getScoreAtRank(1);
+            top = top == null ? new Score("?", "?", "?", 0) : top;
+
+            if (!top.equals(this.top)) {
+                this.top = top;
+                dirty |= set(Variable.TOPSCORE, Integer.toString(top.score()));
+                dirty |= set(Variable.TOPPLAYER, top.name());
+            }
+        }
+
+        Line titleLine = template.getTitle();
+        if (full || (titleLine.mask() & dirty) != 0 || titleLine.placeholders()) {
+            String title = render(titleLine, player);
+
+            if (full || !title.equals(this.title)) {
+                this.title = title;
+                board.updateTitle(title);
+            }
+        }
+
+        Line[] templateLines = template.getLines();
+        if (full || lines.length != templateLines.length) {
+            lines = new String[templateLines.length];
+            for (int i = 0; i < templateLines.length; i++) {
+                lines[i] = render(templateLines[i], player);
+            }
+            board.updateLines(lines);
+            return;
+        }
+
+        for (int i = 0; i < templateLines.length; i++) {
+            Line line = templateLines[i];
+            if ((line.mask() & dirty) == 0 && !line.placeholders()) {
+                continue;
+            }
+
+            String rendered = render(line, player);
+            if (!rendered.equals(lines[i])) {
+                lines[i] = rendered;
+                board.updateLine(i, rendered);
+            }
+        }
+    }
+
+    // sets the value of a variable, returning its bit if the value has changed
+    private int set(Variable variable, String value) {
+        int index = variable.ordinal();
+        if (Objects.equals(values[index], value)) {
+            return 0;
+        }
+
+        values[index] = value;
+        return variable.bit();
+    }
+
+    private String render(Line line, ParkourPlayer player) {
+        if (line.placeholders()) { // add support for PAPI placeholders in scoreboard
+            return line.render(Util.translate(player.player, line.raw()), values);
+        }
+        return line.render(values);
+    }
+}
@@ -0,0 +1,217 @@
+package dev.efnilite.ip.player.scoreboard;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Locales;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The scoreboard title and lines of a locale, with all variables split from the text.
+ * Templates are compiled once per locale, so rendering a line only has to join the text with the current values.
+ */
+public class ScoreboardTemplate {
+
+    /**
+     * All variables that can be used in the scoreboard.
+     */
+    public enum Variable {
+        SCORE("%score%"),
+        TIME("%time%"),
+        HIGHSCORE("%highscore%"),
+        TOPSCORE("%topscore%"),
+        TOPPLAYER("%topplayer%"),
+        SESSION("%session%");
+
+        private final String key;
+
+        Variable(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return the bit of this variable in a variable mask.
+         */
+        public int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    /**
+     * A compiled line. Text and variables alternate, starting and ending with text.
+     *
+     * @param   raw
+     *          The uncompiled line
+     *
+     * @param   text
+     *          The text between variables
+     *
+     * @param   variables
+     *          The variables, where variable i is between text i and text i + 1
+     *
+     * @param   mask
+     *          The bits of all variables used in this line
+     *
+     * @param   placeholders
+     *          Whether this line may contain PlaceholderAPI placeholders, which have to be translated every render
+     */
+    public record Line(String raw, String[] text, Variable[] variables, int mask, boolean placeholders) {
+
+        /**
+         * Renders this line.
+         *
+         * @param   values
+         *          The value of every variable, indexed by ordinal
+         *
+         * @return the line with all variables replaced.
+         */
+        public String render(String[] values) {
+            if (variables.length == 0) {
+                return text[0];
+            }
+
+            StringBuilder builder = new StringBuilder(raw.length() + 16);
+            for (int i = 0; i < variables.length; i++) {
+                builder.append(text[i]).append(values[variables[i].ordinal()]);
+            }
+            return builder.append(text[variables.length]).toString();
+        }
+
+        /**
+         * Renders this line after PlaceholderAPI placeholders have been translated.
+         *
+         * @param   translated
+         *          The raw line with placeholders translated
+         *
+         * @param   values
+         *          The value of every variable, indexed by ordinal
+         *
+         * @return the line with all variables replaced.
+         */
+        public String render(String translated, String[] values) {
+            for (Variable variable : variables) {
+                translated = translated.replace(variable.key, values[variable.ordinal()]);
+            }
+            return translated;
+        }
+    }
+
+    private static final Map<String, ScoreboardTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final Line title;
+    private final Line[] lines;
+    private final int mask;
+
+    private ScoreboardTemplate(Line title, Line[] lines) {
+        this.title = title;
+        this.lines = lines;
+
+        int mask = title.mask();
+        for (Line line : lines) {
+            mask |= line.mask();
+        }
+        this.mask = mask;
+    }
+
+    /**
+     * Gets the template of a locale, compiling it if this locale hasn't been used before.
+     *
+     * @param   locale
+     *          The locale
+     *
+     * @return the template.
+     */
+    public static @NotNull ScoreboardTemplate get(@NotNull String locale) {
+        return TEMPLATES.computeIfAbsent(locale, ScoreboardTemplate::compile);
+    }
+
+    /**
+     * Removes all compiled templates. Should be called when the locales are (re)loaded.
+     */
+    public static void invalidate() {
+        TEMPLATES.clear();
+    }
+
+    private static ScoreboardTemplate compile(String locale) {
+        Line title = compileLine(Locales.getString(locale, "scoreboard.title", true));
+
+        List<String> raw = Locales.getStringList(locale, "scoreboard.lines", true);
+        Line[] lines = new Line[raw.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = compileLine(raw.get(i));
+        }
+
+        return new ScoreboardTemplate(title, lines);
+    }
+
+    private static Line compileLine(String raw) {
+        List<String> text = new ArrayList<>();
+        List<Variable> variables = new ArrayList<>();
+        StringBuilder rest = new StringBuilder();
+
+        int mask = 0;
+        int start = 0;
+        int index = 0;
+        while (index < raw.length()) {
+            Variable variable = raw.charAt(index) == '%' ? variableAt(raw, index) : null;
+
+            if (variable == null) {
+                index++;
+                continue;
+            }
+
+            text.add(raw.substring(start, index));
+            rest.append(raw, start, index);
+            variables.add(variable);
+            mask |= variable.bit();
+
+            index += variable.key.length();
+            start = index;
+        }
+        text.add(raw.substring(start));
+        rest.append(raw, start, raw.length());
+
+        // placeholders are only translated if PlaceholderAPI is installed and the text may contain one
+        boolean placeholders = IP.getPlaceholderHook() != null && rest.indexOf("%") != rest.lastIndexOf("%");
+
+        return new Line(raw, text.toArray(new String[0]), variables.toArray(new Variable[0]), mask, placeholders);
+    }
+
+    private static Variable variableAt(String raw, int index) {
+        for (Variable variable : Variable.values()) {
+            if (raw.startsWith(variable.key, index)) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the title.
+     */
+    public Line getTitle() {
+        return title;
+    }
+
+    /**
+     * @return the lines.
+     */
+    public Line[] getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns whether this template uses a variable.
+     *
+     * @param   variable
+     *          The variable
+     *
+     * @return true if it is used, false if not.
+     */
+    public boolean uses(Variable variable) {
+        return (mask & variable.bit()) != 0;
+    }
+}
@@ -0,0 +1,115 @@
+package dev.efnilite.ip.schematic;
+
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A global palette of block data that is shared by all schematics.
+ * <p>
+ * Every block state is created once and interned by its string form, so schematics store small ids
+ * instead of their own copies of the same block data. Block data that is equal but written differently
+ * (e.g. {@code stone} and {@code minecraft:stone}) gets the same id.
+ * <p>
+ * Ids are never removed, since the amount of distinct block states used by schematics is small.
+ */
+public class BlockPalette {
+
+    private static final Map<String, Integer> ids = new HashMap<>();
+    private static BlockData[] palette = new BlockData[64];
+    private static int size = 0;
+
+    /**
+     * Gets the id of a block data string that has been interned before.
+     *
+     * @param   string
+     *          The block data string, as found in a schematic file
+     *
+     * @return the id, or -1 if this string hasn't been interned yet.
+     */
+    public static synchronized int getId(@NotNull String string) {
+        Integer id = ids.get(string);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Interns block data that has been created from a string.
+     * If equal block data has already been interned, the existing id is returned and the provided block data is discarded.
+     *
+     * @param   string
+     *          The string the block data has been created from
+     *
+     * @param   data
+     *          The block data
+     *
+     * @return the id of the block data.
+     */
+    public static synchronized int intern(@NotNull String string, @NotNull BlockData data) {
+        Integer existing = ids.get(string);
+        if (existing != null) {
+            return existing;
+        }
+
+        String canonical = data.getAsString();
+        Integer id = ids.get(canonical);
+        if (id == null) {
+            if (size == palette.length) {
+                palette = Arrays.copyOf(palette, size * 2);
+            }
+            id = size;
+            palette[size++] = data;
+            ids.put(canonical, id);
+        }
+
+        ids.put(string, id);
+        return id;
+    }
+
+    /**
+     * Interns block data by its own string form.
+     *
+     * @param   data
+     *          The block data
+     *
+     * @return the id of the block data.
+     */
+    public static int intern(@NotNull BlockData data) {
+        return intern(data.getAsString(), data);
+    }
+
+    /**
+     * @param   id
+     *          The id
+     *
+     * @return the block data with this id. This instance is shared, so it should be cloned before being modified.
+     */
+    public static synchronized @NotNull BlockData get(int id) {
+        return palette[id];
+    }
+
+    /**
+     * Gets the block data of multiple ids at once.
+     *
+     * @param   ids
+     *          The ids
+     *
+     * @return the block data of every id, in the same order.
+     */
+    public static synchronized @NotNull BlockData[] get(@NotNull int[] ids) {
+        BlockData[] data = new BlockData[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            data[i] = palette[ids[i]];
+        }
+        return data;
+    }
+
+    /**
+     * @return the amount of distinct block states in the palette.
+     */
+    public static synchronized int size() {
+        return size;
+    }
+}
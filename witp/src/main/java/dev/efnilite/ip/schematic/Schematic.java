@@ -8,22 +8,24 @@ import dev.efnilite.vilib.util.Task;
 import dev.efnilite.vilib.util.Time;
 import dev.efnilite.vilib.vector.Vector3D;
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
-import org.bukkit.block.data.type.Fence;
-import org.bukkit.block.data.type.Wall;
 import org.bukkit.entity.Player;
-import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * Custom schematic type
@@ -32,10 +34,28 @@ import java.util.stream.Collectors;
  */
 public class Schematic {
 
+    private static final Pattern FACING_PATTERN = Pattern.compile("facing=(\\w+)");
+
+    /**
+     * The estimated amount of bytes used per block when read: the block itself and four rotated variants.
+     */
+    private static final int BYTES_PER_BLOCK = 136;
+
     /**
      * If the schematic has been read already
      */
-    private boolean read;
+    private volatile boolean read;
+
+    /**
+     * Whether the blocks of this schematic are managed by the {@link SchematicCache}, which may unload them
+     * to save memory. The blocks are read again when they are needed.
+     */
+    private volatile boolean lazy;
+
+    /**
+     * The estimated amount of memory used by the blocks of this schematic
+     */
+    private long memoryUsage;
 
     /**
      * Stores values of location
@@ -45,7 +65,7 @@ public class Schematic {
     /**
      * The blocks if present
      */
-    private List<SchematicBlock> blocks;
+    private volatile List<SchematicBlock> blocks;
 
     /**
      * The file associated if present
@@ -58,6 +78,49 @@ public class Schematic {
      */
     private boolean isSupported;
 
+    /**
+     * The blocks rotated by every angle, indexed by the ordinal of the angle. Built when the schematic is read.
+     */
+    private volatile Variant[] variants;
+
+    /**
+     * The rotated positions of the lime and red wool, indexed by the ordinal of the angle.
+     * These are kept when the blocks are unloaded.
+     */
+    private volatile int[][] starts;
+    private volatile int[][] ends;
+
+    /**
+     * A schematic rotated by an angle.
+     *
+     * @param   positions
+     *          The rotated relative position of every block, as x, y and z after each other.
+     *          Solid blocks come first, so blocks that attach to other blocks (torches, etc.) are set last.
+     *
+     * @param   ids
+     *          The {@link BlockPalette} id of the unchanged block data of every block, in the same order as the positions
+     *
+     * @param   rotated
+     *          The {@link BlockPalette} id of the block data of every block with the facing rotated by the angle,
+     *          in the same order as the positions
+     *
+     * @param   lime
+     *          The rotated relative position of the lime wool, or null if there is none
+     *
+     * @param   red
+     *          The rotated relative position of the red wool, or null if there is none
+     *
+     * @param   adjustX
+     *          The x offset to subtract when pasting adjusted, so the lime wool ends up at the paste location
+     *
+     * @param   adjustZ
+     *          The z offset to subtract when pasting adjusted, so the lime wool ends up at the paste location
+     */
+    private record Variant(int[] positions, int[] ids, int[] rotated,
+                           int[] lime, int[] red, int adjustX, int adjustZ) {
+
+    }
+
     /**
      * The constructor while creating a new schematic from 2 positions
      *
@@ -141,162 +204,278 @@ public class Schematic {
     }
 
     /**
-     * Saves a schematic file
+     * Saves a schematic file.
+     * <p>
+     * Snapshots of all chunks in the selection are taken on the main thread. The snapshots are then scanned in parallel
+     * by worker threads, which collect the blocks of a chunk in a batch and stream it to the file.
+     * The live world is never read off the main thread.
+     *
+     * @param   player
+     *          The player to send a message to once the schematic has been saved, or null
      */
     public void save(@Nullable Player player) {
-        Task.create(IP.getPlugin())
-                .async()
-                .execute(() -> {
-                    try {
-                        Time.timerStart("saveSchematic-" + file.getName());
-                        if (dimensions == null || blocks == null) {
-                            IP.logging().error("Data of schematic is null while trying to save!");
-                            return;
-                        }
-
-                        for (Block currentBlock : Util.getBlocks(dimensions.getMaximumPoint(), dimensions.getMinimumPoint())) {
-                            if (currentBlock.getType() == Material.AIR) { // skip air if enabled
-                                continue;
-                            }
-                            Vector3D relativeOffset = Vector3D.fromBukkit(currentBlock.getLocation().subtract(dimensions.getMinimumPoint()).toVector());
-                            blocks.add(new SchematicBlock(currentBlock, relativeOffset));
-                        }
-
-                        // create file
-                        file.createNewFile();
-
-                        FileWriter writer = new FileWriter(file);
-                        String separator = System.lineSeparator();
-
-                        // write dimensions to top of file
-                        writer.write(dimensions.toString());
-                        writer.write(separator); // enter
-
-                        // start palette symbol
-                        writer.write("*");
-                        writer.write(separator); // enter
-
-                        // filtered to prevent double entries in palette
-                        HashSet<String> filtered = new HashSet<>();
-                        Map<String, Integer> palette = new HashMap<>();
-                        blocks.forEach(block -> filtered.add(block.getData().getAsString(true))); // get each of the block types
+        if (!Bukkit.isPrimaryThread()) { // snapshots can only be taken on the main thread
+            Task.create(IP.getPlugin())
+                    .execute(() -> save(player))
+                    .run();
+            return;
+        }
 
-                        // write palette as 0>minecraft:block[data]
-                        int index = 0;
-                        for (String data : filtered) {
-                            palette.put(data, index);
-                            writer.write(index + ">" + data);
-                            writer.write(separator); // enter
-                            index++;
-                        }
+        if (dimensions == null || file == null) {
+            IP.logging().error("Data of schematic is null while trying to save!");
+            return;
+        }
 
-                        // begin vector map
-                        writer.write("~");
-                        writer.write(separator); // enter
+        String timer = "saveSchematic-" + file.getName();
+        Time.timerStart(timer);
 
-                        // write all vectors per block type
-                        StringJoiner joiner = new StringJoiner("/");
-                        for (SchematicBlock block : blocks) {
-                            String current = block.getData().getAsString();
-                            String id = Integer.toString(palette.get(current));
+        Location min = dimensions.getMinimumPoint();
+        Location max = dimensions.getMaximumPoint();
+        World world = min.getWorld();
+        int[] from = new int[] { min.getBlockX(), min.getBlockY(), min.getBlockZ() };
+        int[] to = new int[] { max.getBlockX(), max.getBlockY(), max.getBlockZ() };
+        int[] size = new int[] { dimensions.getWidth(), dimensions.getHeight(), dimensions.getLength() };
+
+        List<ChunkSnapshot> snapshots = new ArrayList<>();
+        for (int chunkX = from[0] >> 4; chunkX <= to[0] >> 4; chunkX++) {
+            for (int chunkZ = from[2] >> 4; chunkZ <= to[2] >> 4; chunkZ++) {
+                snapshots.add(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+            }
+        }
 
-                            Vector3D rel = block.getRelativePosition();
-                            joiner.add(id + "(" + (int) rel.x + "," + (int) rel.y + "," + (int) rel.z + ")"); // id(x,y,z) -> 3(2,3,-3)
+        Task.create(IP.getPlugin())
+                .async()
+                .execute(() -> {
+                    int threads = Math.max(1, Math.min(snapshots.size(), Runtime.getRuntime().availableProcessors() - 1));
+                    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                        Thread thread = new Thread(runnable, "IP Schematic Saver");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+                    try (SchematicFormat.Writer writer = new SchematicFormat.Writer(file)) {
+                        List<CompletableFuture<Void>> futures = new ArrayList<>(snapshots.size());
+                        for (ChunkSnapshot snapshot : snapshots) {
+                            futures.add(CompletableFuture.runAsync(() -> scan(snapshot, from, to, writer), executor));
                         }
+                        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
 
-                        // finish
-                        writer.write(joiner.toString());
-                        writer.flush();
-                        writer.close();
-
-                        if (player == null) {
-                            return;
-                        }
-                        Util.send(player, "&4&l(!) &7Your schematic has been saved in &c" + Time.timerEnd("saveSchematic-" + file.getName() + "ms&7!"));
-                    } catch (IOException ex) {
+                        writer.finish(size);
+                    } catch (IOException | CompletionException ex) {
                         IP.logging().stack("Error while saving schematic " + file, ex);
+                        return;
+                    } finally {
+                        executor.shutdown();
                     }
+
+                    if (player == null) {
+                        return;
+                    }
+                    Util.send(player, "&4&l(!) &7Your schematic has been saved in &c" + Time.timerEnd(timer) + "ms&7!");
                 })
                 .run();
     }
 
+    // writes all non-air blocks of a chunk snapshot that are inside the selection
+    private void scan(ChunkSnapshot snapshot, int[] from, int[] to, SchematicFormat.Writer writer) {
+        int chunkX = snapshot.getX() << 4;
+        int chunkZ = snapshot.getZ() << 4;
+
+        // the same block data is often found many times in a chunk
+        Map<BlockData, String> strings = new HashMap<>();
+        SchematicFormat.Batch batch = new SchematicFormat.Batch();
+        for (int x = Math.max(from[0], chunkX); x <= Math.min(to[0], chunkX + 15); x++) {
+            for (int y = from[1]; y <= to[1]; y++) {
+                for (int z = Math.max(from[2], chunkZ); z <= Math.min(to[2], chunkZ + 15); z++) {
+                    BlockData data = snapshot.getBlockData(x - chunkX, y, z - chunkZ);
+                    if (data.getMaterial().isAir()) {
+                        continue;
+                    }
+
+                    batch.add(strings.computeIfAbsent(data, BlockData::getAsString), x - from[0], y - from[1], z - from[2]);
+                }
+            }
+        }
+
+        try {
+            writer.add(batch);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     /**
-     * Reads a Schematic from a file
+     * Reads a Schematic from a file, in either the text or the binary format.
+     * If this schematic is lazy, every read is reported to the {@link SchematicCache}.
+     *
+     * @see SchematicFormat
      */
     public void read() {
+        boolean loaded = load();
+
+        if (lazy) { // report outside the lock, since the cache may unload other schematics
+            SchematicCache.access(this, loaded);
+        }
+    }
+
+    /**
+     * Removes the blocks of this schematic from memory. The name, dimensions and markers are kept.
+     * The blocks will be read again when they are needed.
+     */
+    public synchronized void unload() {
+        blocks = null;
+        variants = null;
+        read = false;
+    }
+
+    // reads the blocks if they haven't been read yet, returning true if they have been read now
+    private synchronized boolean load() {
         if (read) {
-            return;
+            return false;
         }
-        Time.timerStart("schematicRead");
-        List<String> lines;
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            lines = reader.lines().collect(Collectors.toList()); // read the lines of the file
+        SchematicFormat.Data data;
+        try {
+            data = SchematicFormat.readCached(file);
         } catch (FileNotFoundException ex) {
             IP.logging().stack("Schematic file does not exist!", ex);
-            return;
+            return false;
         } catch (IOException ex) {
             IP.logging().stack("Error while reading file!", ex);
-            return;
+            return false;
         }
         read = true;
 
         // -- Makes palette --
 
-        HashMap<Integer, BlockData> palette = new HashMap<>();
-        boolean readingPalette = false; // palette is ? lines long
-        for (String string : lines) { // reads the palette
-            if (string.contains("*")) {
-                readingPalette = true;
+        String[] entries = data.palette();
+        int[] palette = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            int id = BlockPalette.getId(entries[i]); // block data shared with other schematics
+            if (id >= 0) {
+                palette[i] = id;
                 continue;
-            } else if (string.contains("~")) {
-                break;
             }
-            if (readingPalette) {
-                String[] elements = string.split(">");
-
-                BlockData data;
-                try {
-                    data = Bukkit.createBlockData(elements[1]); // if block data can't be created, check for legacy materials
-                } catch (IllegalArgumentException ex) {
-                    data = checkLegacyMaterials(elements[1], getName()); // if legacy materials can't find something, declare this schematic as unsupported
-                }
-                if (data == null) {
-                    isSupported = false;
-                    return;
-                }
 
-                palette.put(Integer.parseInt(elements[0]), data);
+            BlockData blockData;
+            try {
+                blockData = Bukkit.createBlockData(entries[i]); // if block data can't be created, check for legacy materials
+            } catch (IllegalArgumentException ex) {
+                blockData = checkLegacyMaterials(entries[i], getName()); // if legacy materials can't find something, declare this schematic as unsupported
+            }
+            if (blockData == null) {
+                isSupported = false;
+                return false;
             }
+
+            palette[i] = BlockPalette.intern(entries[i], blockData);
         }
 
-        String fileBlocks = lines.get(lines.size() - 1);
-        String[] splitBlocks = fileBlocks.split("/");
-        Pattern idPattern = Pattern.compile("^\\d+");
-        Pattern vectorPattern = Pattern.compile("\\(-?\\d+,-?\\d+,-?\\d+\\)");
+        // -- Adds the blocks --
 
-        // -- Writes it to the file and adds it to the blocks --
+        int[] ids = data.ids();
+        int[] positions = data.positions();
+        List<SchematicBlock> blocks = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Vector3D vector = new Vector3D(positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]);
 
-        List<SchematicBlock> blocks = new ArrayList<>();
-        for (String block : splitBlocks) { // parse the SchematicBlocks
+            blocks.add(new SchematicBlock(palette[ids[i]], vector));
+        }
+        this.blocks = blocks;
+
+        Variant[] variants = createVariants(palette, ids, positions, data.lime(), data.red());
+        int[][] starts = new int[variants.length][];
+        int[][] ends = new int[variants.length][];
+        for (int i = 0; i < variants.length; i++) {
+            starts[i] = variants[i].lime();
+            ends[i] = variants[i].red();
+        }
+        this.variants = variants;
+        this.starts = starts;
+        this.ends = ends;
+        this.memoryUsage = (long) ids.length * BYTES_PER_BLOCK;
+
+        int[] readDimensions = data.dimensions();
+        this.dimensions = new Dimensions(readDimensions[0], readDimensions[1], readDimensions[2]);
+        return true;
+    }
+
+    // rotates all blocks, markers and facing block data once for every angle
+    private Variant[] createVariants(int[] palette, int[] ids, int[] positions, int lime, int red) {
+        boolean[] solid = new boolean[palette.length];
+        for (int i = 0; i < palette.length; i++) {
+            solid[i] = BlockPalette.get(palette[i]).getMaterial().isSolid();
+        }
 
-            Matcher idMatcher = idPattern.matcher(block); // finds the id
-            int id = 0;
-            while (idMatcher.find()) {
-                id = Integer.parseInt(idMatcher.group());
+        // solid blocks first, then things which go on walls, beds, etc.
+        int[] order = new int[ids.length];
+        int index = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (solid[ids[i]]) {
+                order[index++] = i;
             }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (!solid[ids[i]]) {
+                order[index++] = i;
+            }
+        }
+
+        Variant[] variants = new Variant[RotationAngle.values().length];
+        for (RotationAngle angle : RotationAngle.values()) {
+            int[] rotatedPalette = new int[palette.length];
+            for (int i = 0; i < palette.length; i++) {
+                rotatedPalette[i] = rotateFacing(palette[i], angle);
+            }
+
+            int[] rotatedPositions = new int[positions.length];
+            int[] data = new int[ids.length];
+            int[] rotated = new int[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                int block = order[i];
+                int[] position = VectorUtil.rotateAround(positions[block * 3], positions[block * 3 + 1], positions[block * 3 + 2], angle);
 
-            Matcher vectorMatcher = vectorPattern.matcher(block);
-            Vector3D vector = null;
-            while (vectorMatcher.find()) {
-                vector = VectorUtil.parseVector(vectorMatcher.group());
+                System.arraycopy(position, 0, rotatedPositions, i * 3, 3);
+                data[i] = palette[ids[block]];
+                rotated[i] = rotatedPalette[ids[block]];
             }
 
-            blocks.add(new SchematicBlock(palette.get(id), vector));
+            int[] limePosition = lime < 0 ? null : VectorUtil.rotateAround(positions[lime * 3], positions[lime * 3 + 1], positions[lime * 3 + 2], angle);
+            int[] redPosition = red < 0 ? null : VectorUtil.rotateAround(positions[red * 3], positions[red * 3 + 1], positions[red * 3 + 2], angle);
+
+            // the difference between the rotated lime wool and the paste location, turned by the opposite angle
+            int adjustX = 0;
+            int adjustZ = 0;
+            if (limePosition != null) {
+                RotationAngle opposite = RotationAngle.getFromInteger(angle.getOpposite());
+                int[] turn = VectorUtil.defaultRotate(limePosition[0], limePosition[1], limePosition[2], opposite);
+
+                adjustX = limePosition[0] + turn[0];
+                adjustZ = limePosition[2] + turn[2];
+            }
+
+            variants[angle.ordinal()] = new Variant(rotatedPositions, data, rotated, limePosition, redPosition, adjustX, adjustZ);
+        }
+        return variants;
+    }
+
+    // rotates the facing state of block data, returning the palette id of the rotated block data
+    private int rotateFacing(int id, RotationAngle angle) {
+        String string = BlockPalette.get(id).getAsString();
+        if (!string.contains("facing")) {
+            return id;
         }
-        this.blocks = blocks;
 
-        Vector3D readDimensions = VectorUtil.parseVector(lines.get(0));
-        this.dimensions = new Dimensions((int) readDimensions.x, (int) readDimensions.y, (int) readDimensions.y);
+        Matcher matcher = FACING_PATTERN.matcher(string);
+        while (matcher.find()) {
+            String facing = matcher.group(1);
+            if (facing.equals("up") || facing.equals("down")) {
+                break;
+            }
+            string = string.replaceAll(FACING_PATTERN.pattern(), "facing=" + getFaceFromAngle(facing, angle));
+        }
+
+        int rotated = BlockPalette.getId(string);
+        return rotated >= 0 ? rotated : BlockPalette.intern(string, Bukkit.createBlockData(string));
     }
 
     private @Nullable BlockData checkLegacyMaterials(String full, String fileName) {
@@ -314,37 +493,37 @@ public class Schematic {
         return Bukkit.createBlockData(legacy);
     }
 
-    public List<Block> paste(Location at, RotationAngle angle) {
-        read();
+    /**
+     * Pastes a Schematic at a location and with a certain angle.
+     * The blocks are placed over multiple ticks by the {@link dev.efnilite.ip.world.BlockPlacer}.
+     *
+     * @param   at
+     *          The location at which the Schematic will be pasted
+     *
+     * @param   angle
+     *          The angle of the Schematic (0 is default)
+     *
+     * @return the paste, which completes once all blocks have been placed.
+     */
+    public SchematicPaste paste(Location at, RotationAngle angle) {
+        Variant variant = getVariant(angle);
         // update dimensions to match min location, giving you an idea where it will be pasted
         this.dimensions = new Dimensions(at, at.clone().add(dimensions.toVector3D().toBukkitVector()));
 
-        Location min = dimensions.getMinimumPoint();
-        List<Block> affectedBlocks = new ArrayList<>();
-        for (SchematicBlock block : blocks) {
-            Vector3D relativeOffset = block.getRelativePosition();
-
-            if (relativeOffset == null) {
-                IP.logging().error("Failed in reading schematic " + getName());
-                IP.logging().error("Please delete your schematics folder and restart the server!");
-                return affectedBlocks;
-            }
-
-            relativeOffset = VectorUtil.rotateAround(relativeOffset, angle);
-
-            // all positions are saved to be relative to the minimum location
-            Location pasteLocation = min.clone().add(relativeOffset.toBukkitVector());
-            Block affectedBlock = pasteLocation.getBlock();
-
-            setBlock(affectedBlock, block.getData());
-            affectedBlocks.add(affectedBlock);
+        if (variant == null) {
+            IP.logging().error("Failed in reading schematic " + getName());
+            IP.logging().error("Please delete your schematics folder and restart the server!");
+            return new SchematicPaste(new ArrayList<>(), new BlockData[0], CompletableFuture.completedFuture(null));
         }
-        return affectedBlocks;
+
+        // all positions are saved to be relative to the minimum location
+        Location min = dimensions.getMinimumPoint();
+        return paste(min.getWorld(), min.getBlockX(), min.getBlockY(), min.getBlockZ(), variant.positions(), variant.ids());
     }
 
     /**
      * Pastes a Schematic at a location and with a certain angle, adjusted to be usable in parkour.
-     * todo: optimize/clean up, use matrices and get the initial heading to support for multiple directions, prepare for v3 schematics
+     * All rotations are calculated when the schematic is read, so this only adds the rotated positions to the location.
      *
      * @param   at
      *          The location at which the Schematic will be pasted
@@ -352,96 +531,74 @@ public class Schematic {
      * @param   angle
      *          The angle of the Schematic (0 is default)
      *
-     * @return  A list of the affected blocks during the pasting
-     *
+     * @return the paste, which completes once all blocks have been placed, or null if there is no lime wool.
      */
-    public @Nullable List<Block> pasteAdjusted(Location at, RotationAngle angle) {
-        read();
+    public @Nullable SchematicPaste pasteAdjusted(Location at, RotationAngle angle) {
+        Variant variant = getVariant(angle);
         this.dimensions = new Dimensions(at, at.clone().add(dimensions.toVector3D().toBukkitVector())); // update dimensions to match min location, giving you an idea where it will be pasted
 
-        // -- Preparing for paste --
-
-        Location min = dimensions.getMinimumPoint();
-        Location other = null;
-        Map<Location, BlockData> rotated = new HashMap<>();
-        for (SchematicBlock block : blocks) { // go through blocks
-            Vector3D relativeOffset = block.getRelativePosition().clone();
-            relativeOffset = VectorUtil.rotateAround(relativeOffset, angle);
-
-            // all positions are saved to be relative to the minimum location
-            Location pasteLocation = min.clone().add(relativeOffset.toBukkitVector());
-
-            if (block.getData().getMaterial() == Material.LIME_WOOL) { // finds the lime wool pasting location
-                other = pasteLocation.clone();
-            }
-            rotated.put(pasteLocation.clone(), block.getData()); // put the final locations back
-        }
-
-        if (other == null) { // if no lime wool
+        if (variant == null || variant.lime() == null) { // if no lime wool
             IP.logging().error("No lime wool found in file " + file.getName());
             return null;
         }
 
-        // -- Pasting with angle --
-        // todo optimize
-
-        // the difference between the location of lime wool and `at` so lime wools of angles matches
-        Vector difference = other.clone().subtract(at).toVector();
-
-        // get the opposite angle of the one being pasted at
-        RotationAngle opposite = RotationAngle.getFromInteger(angle.getOpposite());
-        // turn it in a specific way
-        Vector3D turn = VectorUtil.defaultRotate(Vector3D.fromBukkit(difference), opposite);
-        // add it to the difference
-        difference.add(turn.toBukkitVector());
-
-        Pattern pattern = Pattern.compile("facing=(\\w+)");
-
-        List<Block> affectedBlocks = new ArrayList<>();
-        Map<Block, BlockData> toBeSet = new HashMap<>();
-
-        for (Location location : rotated.keySet()) {
-            // align block to where it will actually be set (final step)
-            Block block = location.clone().add(0, difference.getBlockY(),0).subtract(difference).getBlock();
-            // sets the block data
-
-            String finalBlockData = rotated.get(location).getAsString();
-            if (finalBlockData.contains("facing")) {
-                Matcher matcher = pattern.matcher(finalBlockData);
-                while (matcher.find()) {
-                    String facing = matcher.group().replace("facing=", "");
-                    if (facing.equals("up") || facing.equals("down")) {
-                        break;
-                    }
-                    String updated = getFaceFromAngle(facing, angle);
-                    finalBlockData = finalBlockData.replaceAll(pattern.toString(), "facing=" + updated);
-                }
-            }
-
-            BlockData blockData = Bukkit.createBlockData(finalBlockData);
-
-            if (block.getType().isBlock()) { // first solid blocks, then things which go on walls, beds, etc.
-                setBlock(block, blockData);
-            } else {
-                toBeSet.put(block, blockData);
-            }
+        Location min = dimensions.getMinimumPoint();
+        return paste(min.getWorld(), min.getBlockX() - variant.adjustX(), min.getBlockY(), min.getBlockZ() - variant.adjustZ(),
+                variant.positions(), variant.rotated());
+    }
 
-            affectedBlocks.add(block);
+    // reads the blocks if needed and gets the variant of an angle
+    private @Nullable Variant getVariant(RotationAngle angle) {
+        read();
+        Variant[] variants = this.variants;
+        if (variants == null) { // unloaded by another thread in the meantime
+            read();
+            variants = this.variants;
         }
+        return variants == null ? null : variants[angle.ordinal()];
+    }
 
-        for (Block block : toBeSet.keySet()) { // set torches, etc.
-            setBlock(block, toBeSet.get(block));
+    // queues all blocks at the origin plus their relative position
+    private SchematicPaste paste(World world, int x, int y, int z, int[] positions, int[] ids) {
+        BlockData[] data = BlockPalette.get(ids);
+        List<Block> affectedBlocks = new ArrayList<>(data.length);
+        for (int i = 0; i < data.length; i++) {
+            affectedBlocks.add(world.getBlockAt(x + positions[i * 3], y + positions[i * 3 + 1], z + positions[i * 3 + 2]));
         }
 
-        return affectedBlocks;
+        return new SchematicPaste(affectedBlocks, data, IP.getBlockPlacer().setAll(affectedBlocks, data));
+    }
+
+    /**
+     * Gets the relative position of the lime wool, which marks the start of a parkour schematic.
+     *
+     * @param   angle
+     *          The angle the schematic is rotated by
+     *
+     * @return the rotated relative position, or null if there is no lime wool.
+     */
+    public @Nullable Vector3D getStart(RotationAngle angle) {
+        if (starts == null) {
+            read();
+        }
+        int[] start = starts == null ? null : starts[angle.ordinal()];
+        return start == null ? null : new Vector3D(start[0], start[1], start[2]);
     }
 
-    private void setBlock(Block block, BlockData data) {
-        if (data instanceof Fence || data instanceof Wall) {
-            block.setType(data.getMaterial(), true);
-        } else {
-            block.setBlockData(data);
+    /**
+     * Gets the relative position of the red wool, which marks the end of a parkour schematic.
+     *
+     * @param   angle
+     *          The angle the schematic is rotated by
+     *
+     * @return the rotated relative position, or null if there is no red wool.
+     */
+    public @Nullable Vector3D getEnd(RotationAngle angle) {
+        if (ends == null) {
+            read();
         }
+        int[] end = ends == null ? null : ends[angle.ordinal()];
+        return end == null ? null : new Vector3D(end[0], end[1], end[2]);
     }
 
     /**
@@ -454,6 +611,10 @@ public class Schematic {
      */
     public SchematicBlock findFromMaterial(Material material) {
         read();
+        List<SchematicBlock> blocks = this.blocks;
+        if (blocks == null) {
+            return null;
+        }
         for (SchematicBlock block : blocks) {
             if (block.getData().getMaterial() == material) {
                 return block;
@@ -515,10 +676,29 @@ public class Schematic {
     }
 
     public Dimensions getDimensions() {
-        read();
+        if (dimensions == null) {
+            read();
+        }
         return dimensions;
     }
 
+    /**
+     * Sets whether the blocks of this schematic may be unloaded by the {@link SchematicCache}.
+     *
+     * @param   lazy
+     *          True if the blocks may be unloaded, false if not
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * @return the estimated amount of bytes used by the blocks of this schematic when they are in memory.
+     */
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
     public File getFile() {
         return file;
     }
@@ -1,14 +1,12 @@
 package dev.efnilite.ip.schematic;
 
+import dev.efnilite.ip.IP;
 import dev.efnilite.ip.config.Option;
 import dev.efnilite.vilib.vector.Vector3D;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.block.Block;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.util.List;
 
 public class SchematicAdjuster {
 
@@ -23,12 +21,15 @@ public class SchematicAdjuster {
      *
      * @throws IOException if something goes wrong with pasting
      */
-    public static @Nullable List<Block> pasteAdjusted(Schematic schematic, Location adjustTo) throws IOException {
+    public static @Nullable SchematicPaste pasteAdjusted(Schematic schematic, Location adjustTo) throws IOException {
         if (!schematic.hasFile() && adjustTo == null) {
             return null;
         }
-        SchematicBlock start = schematic.findFromMaterial(Material.LIME_WOOL);
-        Vector3D to = start.getRelativePosition();
+        Vector3D to = schematic.getStart(RotationAngle.ANGLE_0);
+        if (to == null) {
+            IP.logging().error("No lime wool found in file " + schematic.getName());
+            return null;
+        }
         adjustTo = adjustTo.subtract(to.toBukkitVector());
 
         return schematic.pasteAdjusted(adjustTo, getAngle(Option.HEADING));
@@ -4,26 +4,39 @@ import dev.efnilite.vilib.vector.Vector3D;
 import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 
+/**
+ * A block in a schematic. The block data is stored as an id in the shared {@link BlockPalette}.
+ */
 public class SchematicBlock {
 
     private final Vector3D relativePosition;
-    private final BlockData data;
+    private final int id;
 
     public SchematicBlock(Block block, Vector3D relativePosition) {
-        this.relativePosition = relativePosition;
-        this.data = block.getBlockData();
+        this(block.getBlockData(), relativePosition);
     }
 
     public SchematicBlock(BlockData data, Vector3D relativePosition) {
+        this(BlockPalette.intern(data), relativePosition);
+    }
+
+    public SchematicBlock(int id, Vector3D relativePosition) {
         this.relativePosition = relativePosition;
-        this.data = data;
+        this.id = id;
     }
 
     public Vector3D getRelativePosition() {
         return relativePosition;
     }
 
+    /**
+     * @return the id of the block data in the {@link BlockPalette}.
+     */
+    public int getId() {
+        return id;
+    }
+
     public BlockData getData() {
-        return data;
+        return BlockPalette.get(id);
     }
-}
\ No newline at end of file
+}
@@ -1,48 +1,337 @@
 package dev.efnilite.ip.schematic;
 
 import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Option;
 import dev.efnilite.vilib.util.Task;
 import dev.efnilite.vilib.util.Time;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
- * Stores schematics, so they don't have to be read every time
+ * Stores schematics, so they don't have to be read every time.
+ * <p>
+ * Schematics are read in parallel by a small pool of worker threads. The cache is only published once all files
+ * have been read, so readers either see the previous complete cache or the new complete cache, never a half-filled one.
+ * Use {@link #isReady()} or {@link #ready()} to check whether the cache has been loaded for the first time,
+ * and the future returned by {@link #read()} to wait for a reload.
+ * <p>
+ * If {@link Option#LAZY_SCHEMATICS} is enabled, only the name, dimensions and markers of every schematic are kept.
+ * The blocks are read when a schematic is used, and the least recently used blocks are unloaded
+ * once they use more than {@link Option#SCHEMATIC_MEMORY} megabytes.
  */
 public class SchematicCache {
 
-    public static volatile Map<String, Schematic> cache = new HashMap<>();
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    // the schematics and their index are replaced together, so a name from the index is always in the cache that was published with it
+    private static volatile Snapshot snapshot = Snapshot.EMPTY;
+    private static final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    // completes once the newest read has been published, null if no read is in progress
+    private static CompletableFuture<Void> reload;
+
+    // incremented every read, so a read that has been superseded doesn't publish its result
+    private static final AtomicInteger loads = new AtomicInteger();
+
+    // lazy schematics that have their blocks in memory, from least to most recently used, with their estimated size
+    private static final LinkedHashMap<Schematic, Long> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private static long residentBytes = 0;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Reads all schematics in the background. The current cache stays in use until all files have been read.
+     *
+     * @return a future that completes once the schematics have been published, or those of a newer read.
+     */
+    public static synchronized @NotNull CompletableFuture<Void> read() {
+        int load = loads.incrementAndGet();
+        if (reload == null) {
+            reload = new CompletableFuture<>();
+        }
+        CompletableFuture<Void> future = reload;
 
-    public static void read() {
         Task.create(IP.getPlugin())
                 .async()
                 .execute(() -> {
                     Time.timerStart("schematicsLoad");
                     IP.logging().info("Initializing schematics...");
-                    cache.clear();
                     File folder = new File(IP.getPlugin().getDataFolder() + "/schematics/");
-                    File[] files = folder.listFiles((dir, name) -> name.contains("parkour-") || name.contains("spawn-island"));
-                    for (File file : files) {
-                        String fileName = file.getName();
-                        Schematic schematic = new Schematic().file(fileName);
-                        schematic.read();
-                        if (schematic.isSupported()) {
-                            cache.put(fileName, schematic);
+                    File[] files = folder.listFiles((dir, name) -> isSchematic(name));
+                    if (files == null) {
+                        files = new File[0];
+                    }
+
+                    ExecutorService executor = Executors.newFixedThreadPool(Math.min(THREADS, Math.max(files.length, 1)), new LoaderThreadFactory());
+                    try {
+                        List<CompletableFuture<Schematic>> futures = new ArrayList<>(files.length);
+                        for (File file : files) {
+                            futures.add(CompletableFuture.supplyAsync(() -> load(file), executor));
                         }
+
+                        Map<String, Schematic> loaded = new HashMap<>();
+                        for (CompletableFuture<Schematic> future : futures) {
+                            Schematic schematic = future.join();
+                            if (schematic.isSupported()) {
+                                loaded.put(schematic.getName(), schematic);
+                            }
+                        }
+
+                        publish(load, loaded);
+                        IP.logging().info("Found " + (files.length - loaded.size()) + " unsupported schematic(s).");
+                        IP.logging().info("Loaded all schematics in " + Time.timerEnd("schematicsLoad") + "ms!");
+                    } catch (Throwable throwable) {
+                        IP.logging().stack("Error while loading schematics", "delete the schematics folder and restart the server", throwable);
+                        publish(load, null);
+                    } finally {
+                        executor.shutdown();
                     }
-                    IP.logging().info("Found " + (files.length - cache.keySet().size()) + " unsupported schematic(s).");
-                    IP.logging().info("Loaded all schematics in " + Time.timerEnd("schematicsLoad") + "ms!");
                 })
                 .run();
+
+        return future;
+    }
+
+    /**
+     * Reloads only the provided schematics, leaving all other schematics untouched.
+     * The updated cache and index are published at once.
+     *
+     * @param   changed
+     *          The file names of schematics that have been created or modified
+     *
+     * @param   removed
+     *          The file names of schematics that have been deleted
+     */
+    public static void update(@NotNull Collection<String> changed, @NotNull Collection<String> removed) {
+        File folder = new File(IP.getPlugin().getDataFolder() + "/schematics/");
+
+        Map<String, Schematic> loaded = new HashMap<>();
+        Set<String> unloaded = new HashSet<>(removed);
+        for (String name : changed) {
+            File file = new File(folder, name);
+            if (!file.exists()) { // moved or deleted before it could be read
+                unloaded.add(name);
+                continue;
+            }
+
+            Schematic schematic = load(file);
+            if (schematic.isSupported()) {
+                loaded.put(name, schematic);
+            } else {
+                unloaded.add(name);
+            }
+        }
+
+        synchronized (SchematicCache.class) {
+            Map<String, Schematic> updated = new HashMap<>(snapshot.cache());
+            updated.keySet().removeAll(unloaded);
+            updated.putAll(loaded);
+
+            snapshot = Snapshot.of(updated);
+        }
+
+        forget(schematic -> changed.contains(schematic.getName()) || unloaded.contains(schematic.getName()));
+
+        IP.logging().info("Reloaded " + loaded.size() + " and removed " + unloaded.size() + " schematic(s)");
     }
 
-    public static Schematic getSchematic(String name) {
-        return cache.get(name);
+    /**
+     * Reports that the blocks of a lazy schematic are used. If the blocks have just been read,
+     * the least recently used schematics are unloaded until the blocks of all schematics fit in the memory budget.
+     *
+     * @param   schematic
+     *          The schematic
+     *
+     * @param   loaded
+     *          True if the blocks had to be read, false if they were still in memory
+     */
+    static void access(@NotNull Schematic schematic, boolean loaded) {
+        List<Schematic> evicted = new ArrayList<>();
+
+        synchronized (resident) {
+            Long previous = resident.put(schematic, schematic.getMemoryUsage()); // also moves it to the back
+            residentBytes += schematic.getMemoryUsage() - (previous == null ? 0 : previous);
+
+            if (loaded || previous == null) {
+                misses.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
+            }
+
+            long budget = Option.SCHEMATIC_MEMORY * 1024L * 1024L;
+            Iterator<Map.Entry<Schematic, Long>> iterator = resident.entrySet().iterator();
+            while (residentBytes > budget && iterator.hasNext()) {
+                Map.Entry<Schematic, Long> entry = iterator.next();
+                if (entry.getKey() == schematic) { // never unload the schematic that's being used
+                    continue;
+                }
+
+                iterator.remove();
+                residentBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+            }
+        }
+
+        // unload outside the lock, since a schematic may be reading its blocks
+        evictions.addAndGet(evicted.size());
+        evicted.forEach(Schematic::unload);
+    }
+
+    // stops tracking schematics that are no longer in the cache
+    private static void forget(Predicate<Schematic> predicate) {
+        synchronized (resident) {
+            Iterator<Map.Entry<Schematic, Long>> iterator = resident.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Schematic, Long> entry = iterator.next();
+                if (predicate.test(entry.getKey())) {
+                    iterator.remove();
+                    residentBytes -= entry.getValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a summary of the memory usage of lazy schematics: the amount of schematics in memory,
+     * the estimated bytes used, the amount of hits, misses and evictions, and the size of the {@link BlockPalette}.
+     */
+    public static @NotNull String getStatistics() {
+        int count;
+        long bytes;
+        synchronized (resident) {
+            count = resident.size();
+            bytes = residentBytes;
+        }
+
+        return "%d/%d schematic(s) in memory using %.1f/%d MB (hits: %d, misses: %d, evictions: %d), %d shared block state(s)".formatted(
+                count, snapshot.cache().size(), bytes / 1024.0 / 1024.0, Option.SCHEMATIC_MEMORY, hits.get(), misses.get(), evictions.get(), BlockPalette.size());
     }
 
+    /**
+     * Returns whether a file should be loaded as a schematic.
+     *
+     * @param   name
+     *          The file name
+     *
+     * @return true if it is a parkour schematic or a spawn island, false if not.
+     */
+    public static boolean isSchematic(@NotNull String name) {
+        return name.endsWith(".witp") && (name.contains("parkour-") || name.contains("spawn-island"));
+    }
+
+    // reads a single schematic on a worker thread. text files are read from their binary copy, see SchematicFormat#readCached
+    private static Schematic load(File file) {
+        Schematic schematic = new Schematic().file(file.getName());
+        schematic.read();
+
+        if (Option.LAZY_SCHEMATICS) { // only keep the name, dimensions and markers until the schematic is used
+            schematic.unload();
+            schematic.setLazy(true);
+        }
+
+        return schematic;
+    }
+
+    // publishes the result of a load, if no newer load has been started since. a failed load (null) keeps the previous cache
+    private static synchronized void publish(int load, @Nullable Map<String, Schematic> loaded) {
+        if (load != loads.get()) {
+            return;
+        }
+
+        if (loaded != null) {
+            snapshot = Snapshot.of(loaded);
+            forget(schematic -> true);
+        }
+
+        ready.complete(null);
+        if (reload != null) {
+            reload.complete(null);
+            reload = null;
+        }
+    }
+
+    /**
+     * Gets a schematic from the cache.
+     *
+     * @param   name
+     *          The file name, including the extension
+     *
+     * @return the schematic, or null if it doesn't exist or the cache hasn't been loaded yet.
+     */
+    public static @Nullable Schematic getSchematic(String name) {
+        return snapshot.cache().get(name);
+    }
+
+    /**
+     * @return all loaded schematics by file name. The map can't be modified and doesn't change when schematics are reloaded.
+     */
+    public static @NotNull Map<String, Schematic> getSchematics() {
+        return snapshot.cache();
+    }
+
+    /**
+     * Previously cleared the cache before a reload. The current cache now stays in use until {@link #read()} has
+     * published the new one, so this does nothing.
+     *
+     * @deprecated use {@link #read()}, which replaces the cache once all schematics have been read.
+     */
+    @Deprecated
     public static void invalidate() {
-        cache.clear();
+
+    }
+
+    /**
+     * @return the difficulty index of all loaded parkour schematics.
+     */
+    public static @NotNull SchematicIndex getIndex() {
+        return snapshot.index();
+    }
+
+    /**
+     * @return true if the schematics have been loaded at least once, false if they are still being read for the first time.
+     */
+    public static boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * @return a future that completes once the schematics have been loaded for the first time.
+     */
+    public static @NotNull CompletableFuture<Void> ready() {
+        return ready;
+    }
+
+    // a published cache with the index built from it
+    private record Snapshot(Map<String, Schematic> cache, SchematicIndex index) {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), SchematicIndex.EMPTY);
+
+        static Snapshot of(Map<String, Schematic> schematics) {
+            return new Snapshot(Map.copyOf(schematics), SchematicIndex.build(schematics.keySet()));
+        }
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "IP Schematic Loader #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,617 @@
+package dev.efnilite.ip.schematic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the two schematic file formats.
+ * <p>
+ * The text format is the original format:
+ * <pre>
+ * (x,y,z)
+ * *
+ * 0>minecraft:stone
+ * ~
+ * 0(1,2,3)/0(1,2,4)/...
+ * </pre>
+ * The binary format stores the same data, but without any parsing of text:
+ * <pre>
+ * int      magic ('WITB')
+ * byte     version
+ * varint   x, y, z dimensions
+ * varint   palette size, followed by every palette entry as a varint length and UTF-8 bytes
+ * varint   index of the first lime wool block + 1, or 0 if there is none
+ * varint   index of the first red wool block + 1, or 0 if there is none
+ * varint   block count, followed by every block as a varint palette id and zigzag varint x, y, z
+ * </pre>
+ * Binary files are read through a memory-mapped {@link FileChannel}, so the file is never copied into a heap buffer.
+ * Both formats use the .witp extension. The format is detected by the magic at the start of the file.
+ * <p>
+ * Text files are never rewritten. Instead, {@link #readCached(File)} keeps a binary copy of them in the {@value #CACHE_FOLDER} folder.
+ */
+public class SchematicFormat {
+
+    private static final int MAGIC = 0x57495442; // WITB
+    private static final byte VERSION = 1;
+
+    /**
+     * The folder, next to the schematic files, that contains the binary copies of text schematics.
+     */
+    public static final String CACHE_FOLDER = ".cache";
+
+    private static final String LIME_WOOL = "minecraft:lime_wool";
+    private static final String RED_WOOL = "minecraft:red_wool";
+
+    /**
+     * The decoded contents of a schematic file, before any {@link org.bukkit.block.data.BlockData} is created.
+     *
+     * @param   dimensions
+     *          The x, y and z dimensions
+     *
+     * @param   palette
+     *          The block data strings, indexed by palette id
+     *
+     * @param   ids
+     *          The palette id of every block
+     *
+     * @param   positions
+     *          The relative position of every block, as x, y and z after each other
+     *
+     * @param   lime
+     *          The index of the first lime wool block, or -1 if there is none
+     *
+     * @param   red
+     *          The index of the first red wool block, or -1 if there is none
+     */
+    public record Data(int[] dimensions, String[] palette, int[] ids, int[] positions, int lime, int red) {
+
+        /**
+         * @return the amount of blocks.
+         */
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    /**
+     * Returns whether a file is in the binary format.
+     *
+     * @param   file
+     *          The file
+     *
+     * @return true if the file starts with the binary magic, false if not.
+     *
+     * @throws  IOException
+     *          If the file can't be read
+     */
+    public static boolean isBinary(@NotNull File file) throws IOException {
+        if (file.length() < 5) {
+            return false;
+        }
+
+        try (DataInputStream stream = new DataInputStream(new FileInputStream(file))) {
+            return stream.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Reads a schematic file, in either format.
+     *
+     * @param   file
+     *          The file
+     *
+     * @return the data.
+     *
+     * @throws  IOException
+     *          If the file can't be read or is malformed
+     */
+    public static @NotNull Data read(@NotNull File file) throws IOException {
+        return isBinary(file) ? readBinary(file) : readText(file);
+    }
+
+    /**
+     * Reads a schematic file, in either format. Text files are read from a binary copy in the {@value #CACHE_FOLDER} folder
+     * next to them, which is written the first time the file is read and again once its size or modification time changes.
+     * The file itself is never changed, so older versions and other tools can still read it.
+     *
+     * @param   file
+     *          The file
+     *
+     * @return the data.
+     *
+     * @throws  IOException
+     *          If the file can't be read or is malformed
+     */
+    public static @NotNull Data readCached(@NotNull File file) throws IOException {
+        if (isBinary(file)) {
+            return readBinary(file);
+        }
+
+        File folder = new File(file.getParentFile(), CACHE_FOLDER);
+        File cached = new File(folder, file.getName() + "." + file.length() + "-" + file.lastModified() + ".bin");
+        if (cached.isFile()) {
+            try {
+                return readBinary(cached);
+            } catch (IOException ex) { // a damaged copy is replaced below
+                Files.deleteIfExists(cached.toPath());
+            }
+        }
+
+        Data data = readText(file);
+        try {
+            Files.createDirectories(folder.toPath());
+            deleteCached(folder, file.getName());
+            writeBinary(cached, data);
+        } catch (IOException ignored) {
+            // the copy only speeds up the next read, so the text file is still used if the copy can't be written
+        }
+        return data;
+    }
+
+    // deletes all binary copies of a schematic, which are outdated
+    private static void deleteCached(File folder, String name) throws IOException {
+        File[] outdated = folder.listFiles((dir, file) -> file.startsWith(name + ".") && file.endsWith(".bin"));
+        if (outdated == null) {
+            return;
+        }
+
+        for (File file : outdated) {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Reads a schematic in the binary format.
+     *
+     * @param   file
+     *          The file
+     *
+     * @return the data.
+     *
+     * @throws  IOException
+     *          If the file can't be read or is malformed
+     */
+    public static @NotNull Data readBinary(@NotNull File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            try {
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException("Not a binary schematic: " + file.getName());
+                }
+                byte version = buffer.get();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported schematic version " + version + " in " + file.getName());
+                }
+
+                int[] dimensions = new int[] { readVarInt(buffer), readVarInt(buffer), readVarInt(buffer) };
+
+                String[] palette = new String[readVarInt(buffer)];
+                for (int i = 0; i < palette.length; i++) {
+                    byte[] bytes = new byte[readVarInt(buffer)];
+                    buffer.get(bytes);
+                    palette[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                int lime = readVarInt(buffer) - 1;
+                int red = readVarInt(buffer) - 1;
+
+                int size = readVarInt(buffer);
+                int[] ids = new int[size];
+                int[] positions = new int[size * 3];
+                for (int i = 0; i < size; i++) {
+                    ids[i] = readVarInt(buffer);
+                    if (ids[i] < 0 || ids[i] >= palette.length) {
+                        throw new IOException("Invalid palette id " + ids[i] + " in " + file.getName());
+                    }
+
+                    positions[i * 3] = readZigZag(buffer);
+                    positions[i * 3 + 1] = readZigZag(buffer);
+                    positions[i * 3 + 2] = readZigZag(buffer);
+                }
+
+                return new Data(dimensions, palette, ids, positions, lime, red);
+            } catch (RuntimeException ex) { // buffer underflow, negative sizes, etc.
+                throw new IOException("Malformed schematic " + file.getName(), ex);
+            }
+        }
+    }
+
+    /**
+     * Reads a schematic in the text format.
+     *
+     * @param   file
+     *          The file
+     *
+     * @return the data.
+     *
+     * @throws  IOException
+     *          If the file can't be read or is malformed
+     */
+    public static @NotNull Data readText(@NotNull File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Missing dimensions in " + file.getName());
+            }
+            int[] dimensions = parseVector(header, header.indexOf('('), file);
+
+            String line = reader.readLine();
+            if (line == null || !line.contains("*")) {
+                throw new IOException("Missing palette in " + file.getName());
+            }
+
+            // palette ids are written in order, but don't rely on it
+            String[] palette = new String[16];
+            int paletteSize = 0;
+            while ((line = reader.readLine()) != null && !line.contains("~")) {
+                int separator = line.indexOf('>');
+                if (separator < 0) {
+                    continue;
+                }
+                int id = Integer.parseInt(line.substring(0, separator).trim());
+                if (id >= palette.length) {
+                    palette = Arrays.copyOf(palette, Math.max(id + 1, palette.length * 2));
+                }
+                palette[id] = line.substring(separator + 1);
+                paletteSize = Math.max(paletteSize, id + 1);
+            }
+            palette = Arrays.copyOf(palette, paletteSize);
+
+            String blocks = reader.readLine();
+            if (blocks == null) {
+                blocks = "";
+            }
+
+            int count = 0;
+            for (int i = 0; i < blocks.length(); i++) {
+                if (blocks.charAt(i) == '(') {
+                    count++;
+                }
+            }
+
+            int[] ids = new int[count];
+            int[] positions = new int[count * 3];
+            int lime = -1;
+            int red = -1;
+
+            // every block is id(x,y,z), separated by /
+            int index = 0;
+            int start = 0;
+            while (index < count) {
+                int open = blocks.indexOf('(', start);
+                int id = Integer.parseInt(blocks.substring(start, open).trim());
+                if (id < 0 || id >= palette.length || palette[id] == null) {
+                    throw new IOException("Invalid palette id " + id + " in " + file.getName());
+                }
+
+                int[] position = parseVector(blocks, open, file);
+                ids[index] = id;
+                System.arraycopy(position, 0, positions, index * 3, 3);
+
+                if (lime == -1 && isMaterial(palette[id], LIME_WOOL)) {
+                    lime = index;
+                } else if (red == -1 && isMaterial(palette[id], RED_WOOL)) {
+                    red = index;
+                }
+
+                index++;
+                start = blocks.indexOf(')', open) + 2; // skip ")/"
+            }
+
+            return new Data(dimensions, palette, ids, positions, lime, red);
+        } catch (RuntimeException ex) { // number format, index out of bounds, etc.
+            throw new IOException("Malformed schematic " + file.getName(), ex);
+        }
+    }
+
+    /**
+     * Writes a schematic in the binary format. The data is first written to a temporary file,
+     * which then replaces the file, so a failed write never leaves a half-written schematic.
+     *
+     * @param   file
+     *          The file
+     *
+     * @param   data
+     *          The data
+     *
+     * @throws  IOException
+     *          If the file can't be written
+     */
+    public static void writeBinary(@NotNull File file, @NotNull Data data) throws IOException {
+        Path target = file.toPath();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp"); // unique, so concurrent writes don't clash
+
+        try {
+            try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                int[] ids = data.ids();
+                int[] positions = data.positions();
+                writeHeader(stream, data.dimensions(), data.palette(), data.lime(), data.red(), ids.length);
+
+                for (int i = 0; i < ids.length; i++) {
+                    writeBlock(stream, ids[i], positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]);
+                }
+            }
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
+
+    // writes everything up to and including the block count
+    private static void writeHeader(DataOutputStream stream, int[] dimensions, String[] palette, int lime, int red, int size) throws IOException {
+        stream.writeInt(MAGIC);
+        stream.writeByte(VERSION);
+
+        for (int dimension : dimensions) {
+            writeVarInt(stream, dimension);
+        }
+
+        writeVarInt(stream, palette.length);
+        for (String entry : palette) {
+            byte[] bytes = (entry == null ? "minecraft:air" : entry).getBytes(StandardCharsets.UTF_8);
+            writeVarInt(stream, bytes.length);
+            stream.write(bytes);
+        }
+
+        writeVarInt(stream, lime + 1);
+        writeVarInt(stream, red + 1);
+        writeVarInt(stream, size);
+    }
+
+    private static void writeBlock(DataOutputStream stream, int id, int x, int y, int z) throws IOException {
+        writeVarInt(stream, id);
+        writeZigZag(stream, x);
+        writeZigZag(stream, y);
+        writeZigZag(stream, z);
+    }
+
+    /**
+     * Writes a binary schematic without keeping its blocks in memory.
+     * <p>
+     * Blocks are encoded to a temporary file as soon as they are added. Only the palette is kept in memory.
+     * Once all blocks have been added, {@link #finish(int[])} writes the header followed by the encoded blocks.
+     * Threads collect blocks in their own {@link Batch}, which is encoded without holding the lock of the writer.
+     * Threads only wait on each other while the palette of a batch is looked up and its encoded blocks are appended.
+     */
+    public static class Writer implements Closeable {
+
+        private final File file;
+        private final Path blocksPath;
+        private final DataOutputStream blocks;
+        private final Map<String, Integer> palette = new LinkedHashMap<>();
+
+        private int size = 0;
+        private int lime = -1;
+        private int red = -1;
+
+        /**
+         * Creates a new writer.
+         *
+         * @param   file
+         *          The file the schematic will be written to
+         *
+         * @throws  IOException
+         *          If the temporary file can't be created
+         */
+        public Writer(@NotNull File file) throws IOException {
+            this.file = file;
+            this.blocksPath = Files.createTempFile(file.toPath().toAbsolutePath().getParent(), file.getName(), ".blocks.tmp");
+            this.blocks = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(blocksPath)));
+        }
+
+        /**
+         * Adds all blocks of a batch, after the blocks that have already been added.
+         *
+         * @param   batch
+         *          The batch
+         *
+         * @throws  IOException
+         *          If the blocks can't be written
+         */
+        public void add(@NotNull Batch batch) throws IOException {
+            if (batch.size == 0) {
+                return;
+            }
+
+            String[] entries = batch.palette.keySet().toArray(new String[0]);
+            int[] ids = new int[entries.length];
+            synchronized (this) {
+                for (int i = 0; i < entries.length; i++) {
+                    Integer id = palette.get(entries[i]);
+                    if (id == null) {
+                        id = palette.size();
+                        palette.put(entries[i], id);
+                    }
+                    ids[i] = id;
+                }
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size * 4);
+            DataOutputStream stream = new DataOutputStream(bytes);
+            int batchLime = -1;
+            int batchRed = -1;
+            for (int i = 0; i < batch.size; i++) {
+                int local = batch.ids[i];
+                if (batchLime == -1 && isMaterial(entries[local], LIME_WOOL)) {
+                    batchLime = i;
+                } else if (batchRed == -1 && isMaterial(entries[local], RED_WOOL)) {
+                    batchRed = i;
+                }
+
+                writeBlock(stream, ids[local], batch.positions[i * 3], batch.positions[i * 3 + 1], batch.positions[i * 3 + 2]);
+            }
+
+            synchronized (this) {
+                if (lime == -1 && batchLime != -1) {
+                    lime = size + batchLime;
+                }
+                if (red == -1 && batchRed != -1) {
+                    red = size + batchRed;
+                }
+
+                bytes.writeTo(blocks);
+                size += batch.size;
+            }
+        }
+
+        /**
+         * Writes the schematic to the file, replacing it if it already exists.
+         *
+         * @param   dimensions
+         *          The x, y and z dimensions
+         *
+         * @throws  IOException
+         *          If the file can't be written
+         */
+        public synchronized void finish(int[] dimensions) throws IOException {
+            blocks.close();
+
+            Path target = file.toPath();
+            Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp"); // unique, so concurrent writes don't clash
+            try {
+                try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    writeHeader(stream, dimensions, palette.keySet().toArray(new String[0]), lime, red, size);
+                    Files.copy(blocksPath, stream);
+                }
+
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+        }
+
+        /**
+         * @return the amount of blocks that have been added.
+         */
+        public synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Deletes the temporary block file.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            blocks.close();
+            Files.deleteIfExists(blocksPath);
+        }
+    }
+
+    /**
+     * Blocks collected by a single thread, which are added to a {@link Writer} at once.
+     * Not thread-safe.
+     */
+    public static class Batch {
+
+        private final Map<String, Integer> palette = new LinkedHashMap<>();
+        private int[] ids = new int[256];
+        private int[] positions = new int[256 * 3];
+        private int size = 0;
+
+        /**
+         * Adds a block.
+         *
+         * @param   data
+         *          The block data string, as returned by {@link org.bukkit.block.data.BlockData#getAsString()}
+         *
+         * @param   x
+         *          The relative x coordinate
+         *
+         * @param   y
+         *          The relative y coordinate
+         *
+         * @param   z
+         *          The relative z coordinate
+         */
+        public void add(@NotNull String data, int x, int y, int z) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                positions = Arrays.copyOf(positions, size * 6);
+            }
+
+            Integer id = palette.get(data);
+            if (id == null) {
+                id = palette.size();
+                palette.put(data, id);
+            }
+
+            ids[size] = id;
+            positions[size * 3] = x;
+            positions[size * 3 + 1] = y;
+            positions[size * 3 + 2] = z;
+            size++;
+        }
+
+        /**
+         * @return the amount of blocks in this batch.
+         */
+        public int size() {
+            return size;
+        }
+    }
+
+    // whether a block data string has a material, ignoring its states
+    private static boolean isMaterial(String data, String material) {
+        return data.startsWith(material) && (data.length() == material.length() || data.charAt(material.length()) == '[');
+    }
+
+    // parses (x,y,z) starting at the opening bracket
+    private static int[] parseVector(String string, int open, File file) throws IOException {
+        int close = string.indexOf(')', open);
+        String[] split = string.substring(open + 1, close).split(",");
+        if (split.length != 3) {
+            throw new IOException("Invalid vector " + string.substring(open, close + 1) + " in " + file.getName());
+        }
+
+        // dimensions may have been written as doubles
+        return new int[] {
+                (int) Double.parseDouble(split[0]),
+                (int) Double.parseDouble(split[1]),
+                (int) Double.parseDouble(split[2]) };
+    }
+
+    private static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static void writeZigZag(DataOutput output, int value) throws IOException {
+        writeVarInt(output, (value << 1) ^ (value >> 31));
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too long");
+    }
+
+    private static int readZigZag(ByteBuffer buffer) throws IOException {
+        int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
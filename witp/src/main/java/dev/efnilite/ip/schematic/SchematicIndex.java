@@ -0,0 +1,108 @@
+package dev.efnilite.ip.schematic;
+
+import dev.efnilite.ip.util.Util;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable index of all parkour schematics, sorted by difficulty.
+ * <p>
+ * Since the schematics are sorted, all schematics below a difficulty are always the first n schematics.
+ * Selecting a schematic is a binary search for n followed by a single random pick,
+ * without touching the disk or parsing file names.
+ */
+public class SchematicIndex {
+
+    /**
+     * An index without any schematics.
+     */
+    public static final SchematicIndex EMPTY = new SchematicIndex(new String[0], new double[0]);
+
+    private final String[] names;
+    private final double[] difficulties;
+
+    private SchematicIndex(String[] names, double[] difficulties) {
+        this.names = names;
+        this.difficulties = difficulties;
+    }
+
+    /**
+     * Builds an index from schematic file names. Only parkour schematics are indexed.
+     * Schematics with the same difficulty are sorted by name, so the same seed always selects the same schematic.
+     *
+     * @param   names
+     *          The file names
+     *
+     * @return the index.
+     */
+    public static @NotNull SchematicIndex build(@NotNull Collection<String> names) {
+        List<String> parkour = new ArrayList<>();
+        Map<String, Double> difficulties = new HashMap<>();
+        for (String name : names) {
+            if (!name.startsWith("parkour-")) {
+                continue;
+            }
+
+            try {
+                difficulties.put(name, Util.getDifficulty(name));
+                parkour.add(name);
+            } catch (NumberFormatException ex) { // not a parkour-<number> file
+                // ignore
+            }
+        }
+
+        parkour.sort(Comparator.<String>comparingDouble(difficulties::get).thenComparing(Comparator.naturalOrder()));
+
+        String[] sortedNames = parkour.toArray(new String[0]);
+        double[] sortedDifficulties = new double[sortedNames.length];
+        for (int i = 0; i < sortedNames.length; i++) {
+            sortedDifficulties[i] = difficulties.get(sortedNames[i]);
+        }
+
+        return new SchematicIndex(sortedNames, sortedDifficulties);
+    }
+
+    /**
+     * Selects a random schematic with a difficulty below the provided difficulty.
+     *
+     * @param   difficulty
+     *          The difficulty, exclusive
+     *
+     * @param   random
+     *          The random
+     *
+     * @return the file name of the schematic, or null if no schematic is easy enough.
+     */
+    public @Nullable String select(double difficulty, @NotNull Random random) {
+        int count = countBelow(difficulty);
+        if (count == 0) {
+            return null;
+        }
+
+        return names[random.nextInt(count)];
+    }
+
+    // the amount of schematics with a difficulty below the provided difficulty
+    private int countBelow(double difficulty) {
+        int low = 0;
+        int high = difficulties.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (difficulties[middle] < difficulty) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the amount of indexed schematics.
+     */
+    public int size() {
+        return names.length;
+    }
+}
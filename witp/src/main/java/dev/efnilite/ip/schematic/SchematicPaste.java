@@ -0,0 +1,66 @@
+package dev.efnilite.ip.schematic;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A schematic that is being pasted. The blocks are queued in the {@link dev.efnilite.ip.world.BlockPlacer},
+ * so they are placed over multiple ticks. Use {@link #getCompletion()} to wait until all blocks have been placed.
+ */
+public class SchematicPaste {
+
+    private final List<Block> blocks;
+    private final BlockData[] data;
+    private final CompletableFuture<Void> completion;
+
+    public SchematicPaste(@NotNull List<Block> blocks, @NotNull BlockData[] data, @NotNull CompletableFuture<Void> completion) {
+        this.blocks = blocks;
+        this.data = data;
+        this.completion = completion;
+    }
+
+    /**
+     * Finds the first block that will be set to a material.
+     * This uses the data of the schematic, so it also works when the block hasn't been placed yet.
+     *
+     * @param   material
+     *          The material
+     *
+     * @return the block, or null if the schematic doesn't contain this material.
+     */
+    public @Nullable Block find(@NotNull Material material) {
+        for (int i = 0; i < data.length; i++) {
+            if (data[i].getMaterial() == material) {
+                return blocks.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return all blocks that are affected by this paste, in the order they are placed.
+     */
+    public @NotNull List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return a future that completes on the main thread once all blocks have been placed.
+     */
+    public @NotNull CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * @return true if all blocks have been placed, false if not.
+     */
+    public boolean isComplete() {
+        return completion.isDone();
+    }
+}
@@ -0,0 +1,136 @@
+package dev.efnilite.ip.schematic;
+
+import dev.efnilite.ip.IP;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the schematics folder, and reloads schematics that have been created, modified or deleted.
+ * Only the changed schematics are read again, see {@link SchematicCache#update(java.util.Collection, java.util.Collection)}.
+ * <p>
+ * Files are often written in multiple steps, so changes are only reloaded once no new changes
+ * have happened for {@link #QUIET_PERIOD} milliseconds.
+ */
+public class SchematicWatcher {
+
+    private static final long QUIET_PERIOD = 500;
+
+    private Thread thread;
+    private WatchService service;
+
+    /**
+     * Starts watching the schematics folder. Does nothing if the folder is already being watched.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        Path folder = new File(IP.getPlugin().getDataFolder(), "schematics").toPath();
+        try {
+            Files.createDirectories(folder);
+            service = folder.getFileSystem().newWatchService();
+            folder.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException ex) {
+            IP.logging().stack("Error while watching the schematics folder", "disable hot reloading of schematics", ex);
+            return;
+        }
+
+        WatchService watchService = service;
+        thread = new Thread(() -> watch(folder, watchService), "IP Schematic Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the schematics folder.
+     */
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+
+        thread.interrupt();
+        try {
+            service.close();
+        } catch (IOException ex) {
+            IP.logging().stack("Error while closing the schematics folder watcher", ex);
+        }
+
+        thread = null;
+        service = null;
+    }
+
+    private void watch(Path folder, WatchService service) {
+        Set<String> changed = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+
+        // the last modification time of every reloaded file, to ignore changes made by the cache itself (e.g. conversion)
+        Map<String, Long> reloaded = new HashMap<>();
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean pending = !changed.isEmpty() || !removed.isEmpty();
+                WatchKey key = pending ? service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS) : service.take();
+
+                if (key == null) { // quiet period has passed
+                    changed.removeIf(name -> {
+                        Long modified = reloaded.get(name);
+                        return modified != null && modified == folder.resolve(name).toFile().lastModified();
+                    });
+                    removed.forEach(reloaded::remove);
+
+                    if (!changed.isEmpty() || !removed.isEmpty()) {
+                        SchematicCache.update(changed, removed);
+                    }
+
+                    changed.forEach(name -> reloaded.put(name, folder.resolve(name).toFile().lastModified()));
+                    changed.clear();
+                    removed.clear();
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    WatchEvent.Kind<?> kind = event.kind();
+                    if (kind == StandardWatchEventKinds.OVERFLOW) { // events have been lost, so read everything again
+                        IP.logging().warn("Missed changes in the schematics folder, reloading all schematics");
+                        changed.clear();
+                        removed.clear();
+                        reloaded.clear();
+                        SchematicCache.read();
+                        continue;
+                    }
+
+                    String name = event.context().toString();
+                    if (!SchematicCache.isSchematic(name)) {
+                        continue;
+                    }
+
+                    if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                        changed.remove(name);
+                        removed.add(name);
+                    } else {
+                        removed.remove(name);
+                        changed.add(name);
+                    }
+                }
+
+                if (!key.reset()) { // folder has been deleted
+                    IP.logging().warn("Schematics folder is no longer accessible, stopped watching it");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // stopped
+        } catch (Throwable throwable) {
+            IP.logging().stack("Error while watching the schematics folder", "disable hot reloading of schematics", throwable);
+        }
+    }
+}
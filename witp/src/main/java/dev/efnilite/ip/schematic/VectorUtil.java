@@ -28,6 +28,34 @@ public class VectorUtil {
         };
     }
 
+    /**
+     * Same as {@link #rotateAround(Vector3D, RotationAngle)}, but for block coordinates.
+     *
+     * @return the rotated x, y and z.
+     */
+    public static int[] rotateAround(int x, int y, int z, RotationAngle rotation) {
+        return switch (rotation) {
+            case ANGLE_0 -> new int[] { x, y, z };
+            case ANGLE_90 -> new int[] { z, y, -x };
+            case ANGLE_180 -> new int[] { -x, y, -z };
+            case ANGLE_270 -> new int[] { -z, y, x };
+        };
+    }
+
+    /**
+     * Same as {@link #defaultRotate(Vector3D, RotationAngle)}, but for block coordinates.
+     *
+     * @return the rotated x, y and z.
+     */
+    public static int[] defaultRotate(int x, int y, int z, RotationAngle rotation) {
+        return switch (rotation) {
+            case ANGLE_0 -> new int[] { x, y, z };
+            case ANGLE_90 -> new int[] { -z, y, x };
+            case ANGLE_180 -> new int[] { -x, y, -z };
+            case ANGLE_270 -> new int[] { z, y, -x };
+        };
+    }
+
     public static Vector3D swapXZ(Vector3D vector) {
         double x = vector.x;
         vector.x = vector.z;
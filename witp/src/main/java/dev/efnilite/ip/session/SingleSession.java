@@ -2,6 +2,7 @@ package dev.efnilite.ip.session;
 
 import dev.efnilite.ip.api.Gamemode;
 import dev.efnilite.ip.config.Locales;
+import dev.efnilite.ip.generator.DefaultGenerator;
 import dev.efnilite.ip.player.ParkourPlayer;
 import dev.efnilite.ip.player.ParkourSpectator;
 import dev.efnilite.ip.player.ParkourUser;
@@ -75,6 +76,13 @@ public class SingleSession implements Session {
 
             this.spectators.put(spectator.getUUID(), spectator);
             spectator.sessionId = getSessionId();
+
+            // ghost blocks only exist for the players they have been sent to
+            for (ParkourPlayer player : players.values()) {
+                if (player.getGenerator() instanceof DefaultGenerator generator) {
+                    generator.sendGhostBlocks(spectator.player);
+                }
+            }
         }
     }
 
@@ -1,11 +1,12 @@
 package dev.efnilite.ip.util;
 
 import dev.efnilite.vilib.util.Time;
-import org.apache.commons.lang.time.DurationFormatUtils;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * A stopwatch that... counts
+ * <p>
+ * The time is displayed in tenths of a second, so the formatted time is cached until the displayed tenth changes.
  *
  * @author Efnilite
  */
@@ -13,6 +14,12 @@ public class Stopwatch {
 
     private long start;
 
+    /**
+     * The elapsed tenths of a second of {@link #formatted}.
+     */
+    private volatile long formattedTenths = -1;
+    private String formatted = "0.0s";
+
     public boolean hasStarted() {
         return start != 0;
     }
@@ -25,6 +32,38 @@ public class Stopwatch {
         start = 0;
     }
 
+    /**
+     * @return the elapsed time in ms, or 0 if this stopwatch hasn't started.
+     */
+    public long getMillis() {
+        return start == 0 ? 0 : System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Formats a duration like {@code 1h 2m 3.4s}. Hours and minutes are only shown when they are not 0.
+     *
+     * @param   millis
+     *          The duration in ms
+     *
+     * @return the formatted duration
+     */
+    public static String format(long millis) {
+        long tenths = millis / 100;
+
+        long hours = tenths / 36000;
+        long mins = (tenths / 600) % 60;
+        long secs = (tenths / 10) % 60;
+
+        StringBuilder builder = new StringBuilder(16);
+        if (hours > 0) {
+            builder.append(hours).append("h ");
+        }
+        if (mins > 0) {
+            builder.append(mins).append("m ");
+        }
+        return builder.append(secs).append('.').append(tenths % 10).append('s').toString();
+    }
+
     /**
      * Parses a time to a duration in ms
      *
@@ -60,23 +99,12 @@ public class Stopwatch {
         if (start == 0) {
             return "0.0s";
         }
-        long delta = System.currentTimeMillis() - start;
-        String format = DurationFormatUtils.formatDuration(delta, "HH:mm:ss:SSS", true);
-        String[] split = format.split(":");
-        String updated = "";
-        int hours = Integer.parseInt(split[0]);
-        if (hours > 0) {
-            updated += hours + "h ";
-        }
-        int mins = Integer.parseInt(split[1]);
-        if (mins > 0) {
-            updated += mins + "m ";
+
+        long tenths = (System.currentTimeMillis() - start) / 100;
+        if (tenths != formattedTenths) {
+            formatted = format(tenths * 100);
+            formattedTenths = tenths;
         }
-        int secs = Integer.parseInt(split[2]);
-        updated += secs;
-        int ms = Integer.parseInt(split[3]);
-        String parsed = Integer.toString(ms);
-        updated += "." + parsed.charAt(0) + "s";
-        return updated;
+        return formatted;
     }
 }
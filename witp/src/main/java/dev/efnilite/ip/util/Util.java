@@ -81,7 +81,7 @@ public class Util {
      */
     public static double getDifficulty(String fileName) {
         int index = Integer.parseInt(fileName.split("-")[1].replace(".witp", ""));
-        return IP.getConfiguration().getFile("structures").getDouble("difficulty." + index);
+        return IP.getConfiguration().getFile("schematics").getDouble("difficulty." + index);
     }
 
     public static String parseDifficulty(double difficulty) {
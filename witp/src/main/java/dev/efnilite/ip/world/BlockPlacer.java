@@ -0,0 +1,325 @@
+package dev.efnilite.ip.world;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.vilib.util.Task;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Global queue for all block changes made by generators.
+ * <p>
+ * Changes are grouped per chunk section and applied in the order they were queued.
+ * Every tick, at most {@link Option#BLOCK_PLACEMENT_BUDGET} changes are applied, so a lot of players joining at once
+ * (which all generate their first blocks in the same tick) is spread over multiple ticks.
+ * Up to half of the budget is reserved for single block changes, like the next parkour block of a player,
+ * so these don't wait behind large batches like a spawn island. The rest is shared between all chunk sections in turn.
+ * Only use this on the main thread.
+ */
+public class BlockPlacer {
+
+    private static final BlockData AIR = Material.AIR.createBlockData();
+
+    /**
+     * A queued block change.
+     */
+    private record Placement(int x, int y, int z, BlockData data, boolean physics, @Nullable Batch batch) {
+
+    }
+
+    /**
+     * The chunk section (16x16x16 blocks) a block change is in.
+     */
+    private record SectionKey(World world, int x, int y, int z) {
+
+    }
+
+    /**
+     * Changes that were queued together, which complete a future once all of them have been applied.
+     */
+    private static class Batch {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private int remaining;
+
+    }
+
+    private final LinkedHashMap<SectionKey, ArrayDeque<Placement>> pending = new LinkedHashMap<>();
+    private int size = 0;
+
+    /**
+     * The amount of queued changes that are not part of a batch.
+     */
+    private int singles = 0;
+
+    /**
+     * Batches of which all changes have been applied, but whose future hasn't been completed yet.
+     */
+    private final List<Batch> completed = new ArrayList<>();
+
+    private BukkitTask task;
+
+    /**
+     * Starts the repeating task that applies the queued changes.
+     */
+    public void start() {
+        if (task != null) {
+            return;
+        }
+
+        task = Task.create(IP.getPlugin())
+                .repeat(1)
+                .execute(() -> apply(Option.BLOCK_PLACEMENT_BUDGET))
+                .run();
+    }
+
+    /**
+     * Stops the repeating task and applies all changes that are still queued.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        flush();
+    }
+
+    /**
+     * Queues a block change.
+     *
+     * @param   block
+     *          The block
+     *
+     * @param   data
+     *          The new block data
+     *
+     * @param   physics
+     *          Whether physics should be applied, e.g. for fences or panes that have to connect to other blocks.
+     */
+    public void set(@NotNull Block block, @NotNull BlockData data, boolean physics) {
+        set(block.getWorld(), block.getX(), block.getY(), block.getZ(), data, physics);
+    }
+
+    /**
+     * Queues a block change.
+     *
+     * @param   world
+     *          The world
+     *
+     * @param   x
+     *          The x coordinate
+     *
+     * @param   y
+     *          The y coordinate
+     *
+     * @param   z
+     *          The z coordinate
+     *
+     * @param   data
+     *          The new block data
+     *
+     * @param   physics
+     *          Whether physics should be applied, e.g. for fences or panes that have to connect to other blocks.
+     */
+    public void set(@NotNull World world, int x, int y, int z, @NotNull BlockData data, boolean physics) {
+        queue(world, new Placement(x, y, z, data, physics, null));
+    }
+
+    /**
+     * Queues block changes that belong together, like the blocks of a schematic.
+     * Physics are applied to all blocks.
+     *
+     * @param   blocks
+     *          The blocks
+     *
+     * @param   data
+     *          The new block data of every block, in the same order as the blocks
+     *
+     * @return a future that completes on the main thread once all changes have been applied.
+     */
+    public @NotNull CompletableFuture<Void> setAll(@NotNull List<Block> blocks, @NotNull BlockData[] data) {
+        if (blocks.size() != data.length) {
+            throw new IllegalArgumentException("Amount of blocks and block data do not match");
+        }
+
+        return queueAll(blocks, data, true);
+    }
+
+    /**
+     * Queues setting blocks that belong together to air, like the blocks of a plot. No physics are applied.
+     *
+     * @param   blocks
+     *          The blocks
+     *
+     * @return a future that completes on the main thread once all blocks have been set to air.
+     */
+    public @NotNull CompletableFuture<Void> setAir(@NotNull List<Block> blocks) {
+        return queueAll(blocks, null, false);
+    }
+
+    // queues a batch of changes, with air if no data is provided
+    private CompletableFuture<Void> queueAll(List<Block> blocks, @Nullable BlockData[] data, boolean physics) {
+        Batch batch = new Batch();
+        batch.remaining = blocks.size();
+        if (batch.remaining == 0) {
+            batch.future.complete(null);
+            return batch.future;
+        }
+
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            queue(block.getWorld(), new Placement(block.getX(), block.getY(), block.getZ(), data == null ? AIR : data[i], physics, batch));
+        }
+        return batch.future;
+    }
+
+    private void queue(World world, Placement placement) {
+        pending.computeIfAbsent(new SectionKey(world, placement.x() >> 4, placement.y() >> 4, placement.z() >> 4), k -> new ArrayDeque<>())
+                .add(placement);
+        size++;
+        if (placement.batch() == null) {
+            singles++;
+        }
+    }
+
+    /**
+     * Queues setting a block to air.
+     *
+     * @param   block
+     *          The block
+     */
+    public void setAir(@NotNull Block block) {
+        set(block, AIR, true);
+    }
+
+    /**
+     * Queues setting a block to air.
+     *
+     * @param   world
+     *          The world
+     *
+     * @param   x
+     *          The x coordinate
+     *
+     * @param   y
+     *          The y coordinate
+     *
+     * @param   z
+     *          The z coordinate
+     */
+    public void setAir(@NotNull World world, int x, int y, int z) {
+        set(world, x, y, z, AIR, true);
+    }
+
+    /**
+     * Applies all queued changes, ignoring the budget. This includes changes that are queued once a batch completes.
+     */
+    public void flush() {
+        do {
+            apply(Integer.MAX_VALUE);
+        } while (size > 0);
+    }
+
+    /**
+     * @return the amount of changes that are waiting to be applied.
+     */
+    public int size() {
+        return size;
+    }
+
+    // applies queued changes, first single changes within the reserved part of the budget, then every chunk section in turn
+    private void apply(int budget) {
+        if (budget <= 0) {
+            budget = Integer.MAX_VALUE;
+        }
+
+        if (singles > 0) {
+            int reserved = budget == Integer.MAX_VALUE ? budget : Math.max(1, budget / 2);
+            budget -= applySingles(reserved);
+        }
+
+        while (budget > 0 && !pending.isEmpty()) {
+            int share = Math.max(1, budget / pending.size());
+            List<SectionKey> unfinished = new ArrayList<>();
+
+            Iterator<Map.Entry<SectionKey, ArrayDeque<Placement>>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && budget > 0) {
+                Map.Entry<SectionKey, ArrayDeque<Placement>> entry = iterator.next();
+                ArrayDeque<Placement> placements = entry.getValue();
+
+                budget -= applyFrom(entry.getKey().world(), placements, Math.min(share, budget), false);
+
+                if (placements.isEmpty()) {
+                    iterator.remove();
+                } else {
+                    unfinished.add(entry.getKey());
+                }
+            }
+
+            // sections that still have changes go to the back, so the next sections are first in line next time
+            for (SectionKey key : unfinished) {
+                pending.put(key, pending.remove(key));
+            }
+        }
+
+        // complete futures after iterating, since their callbacks may queue new changes
+        List<Batch> batches = new ArrayList<>(completed);
+        completed.clear();
+        for (Batch batch : batches) {
+            batch.future.complete(null);
+        }
+    }
+
+    // applies the single changes at the front of every section, since changes within a section are applied in order
+    private int applySingles(int budget) {
+        int applied = 0;
+
+        Iterator<Map.Entry<SectionKey, ArrayDeque<Placement>>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && applied < budget && singles > 0) {
+            Map.Entry<SectionKey, ArrayDeque<Placement>> entry = iterator.next();
+            ArrayDeque<Placement> placements = entry.getValue();
+
+            applied += applyFrom(entry.getKey().world(), placements, budget - applied, true);
+
+            if (placements.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        return applied;
+    }
+
+    // applies at most the provided amount of changes of a section, stopping at the first batch change if only singles are applied
+    private int applyFrom(World world, ArrayDeque<Placement> placements, int limit, boolean onlySingles) {
+        int applied = 0;
+        while (applied < limit && !placements.isEmpty()) {
+            if (onlySingles && placements.peek().batch() != null) {
+                break;
+            }
+
+            Placement placement = placements.poll();
+            Block block = world.getBlockAt(placement.x(), placement.y(), placement.z());
+
+            block.setBlockData(placement.data(), placement.physics());
+
+            size--;
+            applied++;
+
+            Batch batch = placement.batch();
+            if (batch == null) {
+                singles--;
+            } else if (--batch.remaining == 0) {
+                completed.add(batch);
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,234 @@
+package dev.efnilite.ip.world;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.vilib.util.Task;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads or generates the chunks of plots before they are handed out, so pasting an island doesn't have to wait for chunks.
+ * <p>
+ * If the server supports loading chunks asynchronously (Paper's {@code World#getChunkAtAsync}), that is used.
+ * Otherwise, or if loading a chunk asynchronously fails, at most {@link #SYNC_BUDGET} chunks are loaded every tick.
+ * Loaded chunks are kept loaded with a {@link ChunkTickets ticket}, until the plot is claimed or no longer expected to be handed out.
+ * Only use this on the main thread.
+ */
+public class ChunkPrewarmer {
+
+    /**
+     * The maximum amount of chunks loaded synchronously every tick, if asynchronous loading isn't supported.
+     */
+    private static final int SYNC_BUDGET = 2;
+
+    private static final Method GET_CHUNK_AT_ASYNC = findAsyncMethod();
+
+    /**
+     * The chunks of a plot that is expected to be handed out.
+     */
+    private static class Warming {
+
+        private final World world;
+        private final List<int[]> chunks = new ArrayList<>();
+        private final Set<Long> ticketed = new HashSet<>();
+
+        private Warming(World world) {
+            this.world = world;
+        }
+    }
+
+    /**
+     * Plots that are being warmed, by key.
+     */
+    private final Map<Long, Warming> warming = new HashMap<>();
+
+    /**
+     * Chunks that are waiting to be loaded synchronously, with the plot they belong to.
+     */
+    private final ArrayDeque<Map.Entry<Warming, int[]>> syncQueue = new ArrayDeque<>();
+
+    private BukkitTask task;
+    private boolean running = false;
+
+    /**
+     * Starts the repeating task that loads chunks synchronously, if asynchronous loading isn't supported.
+     * Otherwise, the task is only started once a chunk couldn't be loaded asynchronously.
+     */
+    public void start() {
+        running = true;
+        if (GET_CHUNK_AT_ASYNC == null || !syncQueue.isEmpty()) {
+            startSyncTask();
+        }
+    }
+
+    private void startSyncTask() {
+        if (task != null || !running) {
+            return;
+        }
+
+        task = Task.create(IP.getPlugin())
+                .repeat(1)
+                .execute(this::loadQueued)
+                .run();
+    }
+
+    /**
+     * Stops loading chunks and releases all chunk tickets.
+     */
+    public void stop() {
+        running = false;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        new ArrayList<>(warming.keySet()).forEach(this::release);
+    }
+
+    /**
+     * Starts warming the chunks of a plot. Does nothing if the plot is already being warmed.
+     *
+     * @param   key
+     *          The key of the plot, which is unique over all parkour worlds
+     *
+     * @param   world
+     *          The world
+     *
+     * @param   minX
+     *          The minimum block x coordinate of the area
+     *
+     * @param   minZ
+     *          The minimum block z coordinate of the area
+     *
+     * @param   maxX
+     *          The maximum block x coordinate of the area
+     *
+     * @param   maxZ
+     *          The maximum block z coordinate of the area
+     */
+    public void warm(long key, @NotNull World world, int minX, int minZ, int maxX, int maxZ) {
+        if (warming.containsKey(key)) {
+            return;
+        }
+
+        Warming plot = new Warming(world);
+        warming.put(key, plot);
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                int[] chunk = new int[] { chunkX, chunkZ };
+                plot.chunks.add(chunk);
+
+                if (GET_CHUNK_AT_ASYNC == null) {
+                    syncQueue.add(Map.entry(plot, chunk));
+                    continue;
+                }
+
+                CompletableFuture<?> future = loadAsync(world, chunkX, chunkZ);
+                if (future == null) { // asynchronous loading failed, so load it synchronously
+                    syncQueue.add(Map.entry(plot, chunk));
+                    startSyncTask();
+                    continue;
+                }
+                future.thenRun(() -> Task.create(IP.getPlugin()) // make sure the ticket is added on the main thread
+                        .execute(() -> ticket(plot, chunk))
+                        .run());
+            }
+        }
+    }
+
+    /**
+     * Stops warming a plot and releases its chunk tickets, because it has been claimed or is no longer expected to be handed out.
+     *
+     * @param   key
+     *          The key of the plot
+     */
+    public void release(long key) {
+        Warming plot = warming.remove(key);
+        if (plot == null) {
+            return;
+        }
+
+        for (int[] chunk : plot.chunks) {
+            if (plot.ticketed.contains(ChunkTickets.key(chunk[0], chunk[1]))) {
+                IP.getChunkTickets().release(plot.world, chunk[0], chunk[1]);
+            }
+        }
+        plot.ticketed.clear();
+        syncQueue.removeIf(entry -> entry.getKey() == plot);
+    }
+
+    /**
+     * Releases all plots that are no longer expected to be handed out.
+     *
+     * @param   expected
+     *          The keys of the plots that are expected to be handed out
+     */
+    public void retain(@NotNull Collection<Long> expected) {
+        for (Long key : new ArrayList<>(warming.keySet())) {
+            if (!expected.contains(key)) {
+                release(key);
+            }
+        }
+    }
+
+    /**
+     * @return true if chunks are loaded asynchronously, false if they are loaded synchronously within a budget.
+     */
+    public boolean isAsync() {
+        return GET_CHUNK_AT_ASYNC != null;
+    }
+
+    // loads the queued chunks within the budget, stopping if only asynchronous loading is needed again
+    private void loadQueued() {
+        if (syncQueue.isEmpty() && GET_CHUNK_AT_ASYNC != null) {
+            task.cancel();
+            task = null;
+            return;
+        }
+
+        for (int i = 0; i < SYNC_BUDGET && !syncQueue.isEmpty(); i++) {
+            Map.Entry<Warming, int[]> entry = syncQueue.poll();
+            Warming plot = entry.getKey();
+            int[] chunk = entry.getValue();
+
+            plot.world.getChunkAt(chunk[0], chunk[1]);
+            ticket(plot, chunk);
+        }
+    }
+
+    // adds a ticket to a loaded chunk, if the plot is still being warmed
+    private void ticket(Warming plot, int[] chunk) {
+        if (!warming.containsValue(plot)) { // released while loading
+            return;
+        }
+
+        if (plot.ticketed.add(ChunkTickets.key(chunk[0], chunk[1]))) {
+            IP.getChunkTickets().acquire(plot.world, chunk[0], chunk[1]);
+        }
+    }
+
+    private @Nullable CompletableFuture<?> loadAsync(World world, int chunkX, int chunkZ) {
+        try {
+            return (CompletableFuture<?>) GET_CHUNK_AT_ASYNC.invoke(world, chunkX, chunkZ);
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            IP.logging().stack("Error while loading a chunk asynchronously", ex);
+            return null;
+        }
+    }
+
+    // World#getChunkAtAsync only exists on Paper and its forks
+    private static @Nullable Method findAsyncMethod() {
+        try {
+            Method method = World.class.getMethod("getChunkAtAsync", int.class, int.class);
+            return CompletableFuture.class.isAssignableFrom(method.getReturnType()) ? method : null;
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
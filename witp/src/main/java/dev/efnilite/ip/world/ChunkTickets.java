@@ -0,0 +1,168 @@
+package dev.efnilite.ip.world;
+
+import dev.efnilite.ip.IP;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keeps track of the plugin chunk tickets of IP.
+ * <p>
+ * Bukkit only stores whether a plugin has a ticket on a chunk, so if two parts of IP keep the same chunk loaded
+ * (e.g. a pre-warmed plot that gets claimed by a player), releasing one would unload the chunk for the other.
+ * Tickets are therefore counted here, and the Bukkit ticket is only removed once the count reaches zero.
+ * Also counts the chunks that are unloaded in the parkour worlds.
+ * Only use this on the main thread.
+ */
+public class ChunkTickets implements Listener {
+
+    private final Map<World, Map<Long, Integer>> counts = new HashMap<>();
+
+    private long unloads = 0;
+    private long unloadRequests = 0;
+
+    /**
+     * Keeps a chunk loaded until it is released as many times as it has been acquired.
+     *
+     * @param   world
+     *          The world
+     *
+     * @param   x
+     *          The chunk x coordinate
+     *
+     * @param   z
+     *          The chunk z coordinate
+     */
+    public void acquire(@NotNull World world, int x, int z) {
+        int count = counts.computeIfAbsent(world, k -> new HashMap<>()).merge(key(x, z), 1, Integer::sum);
+        if (count == 1) {
+            world.addPluginChunkTicket(x, z, IP.getPlugin());
+        }
+    }
+
+    /**
+     * Releases a chunk that has been acquired before.
+     *
+     * @param   world
+     *          The world
+     *
+     * @param   x
+     *          The chunk x coordinate
+     *
+     * @param   z
+     *          The chunk z coordinate
+     */
+    public void release(@NotNull World world, int x, int z) {
+        Map<Long, Integer> chunks = counts.get(world);
+        if (chunks == null) {
+            return;
+        }
+
+        if (!chunks.containsKey(key(x, z))) {
+            return;
+        }
+
+        Integer count = chunks.computeIfPresent(key(x, z), (k, v) -> v > 1 ? v - 1 : null);
+        if (count == null) {
+            world.removePluginChunkTicket(x, z, IP.getPlugin());
+        }
+    }
+
+    /**
+     * Asks the server to unload a chunk that is no longer used, if it isn't kept loaded by IP.
+     *
+     * @param   world
+     *          The world
+     *
+     * @param   x
+     *          The chunk x coordinate
+     *
+     * @param   z
+     *          The chunk z coordinate
+     */
+    public void requestUnload(@NotNull World world, int x, int z) {
+        Map<Long, Integer> chunks = counts.get(world);
+        if ((chunks != null && chunks.containsKey(key(x, z))) || !world.isChunkLoaded(x, z)) {
+            return;
+        }
+
+        world.unloadChunkRequest(x, z);
+        unloadRequests++;
+    }
+
+    /**
+     * Removes all tickets of IP.
+     */
+    public void releaseAll() {
+        for (Map.Entry<World, Map<Long, Integer>> entry : counts.entrySet()) {
+            Iterator<Long> iterator = entry.getValue().keySet().iterator();
+            while (iterator.hasNext()) {
+                long key = iterator.next();
+                entry.getKey().removePluginChunkTicket(getX(key), getZ(key), IP.getPlugin());
+                iterator.remove();
+            }
+        }
+        counts.clear();
+    }
+
+    @EventHandler
+    public void unload(ChunkUnloadEvent event) {
+        if (IP.getWorldHandler().isParkourWorld(event.getWorld())) {
+            unloads++;
+        }
+    }
+
+    /**
+     * @return the amount of chunks that are kept loaded by IP.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, Integer> chunks : counts.values()) {
+            size += chunks.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the amount of chunks that have been unloaded in the parkour worlds since the server started.
+     */
+    public long getUnloads() {
+        return unloads;
+    }
+
+    /**
+     * @return the amount of chunks of freed plots that IP has asked the server to unload.
+     */
+    public long getUnloadRequests() {
+        return unloadRequests;
+    }
+
+    /**
+     * Packs chunk coordinates in a single long.
+     *
+     * @param   x
+     *          The chunk x coordinate
+     *
+     * @param   z
+     *          The chunk z coordinate
+     *
+     * @return the packed coordinates.
+     */
+    static long key(int x, int z) {
+        return (x & 0xFFFFFFFFL) | ((long) z << 32);
+    }
+
+    static int getX(long key) {
+        return (int) key;
+    }
+
+    static int getZ(long key) {
+        return (int) (key >> 32);
+    }
+}
@@ -0,0 +1,170 @@
+package dev.efnilite.ip.world;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.vilib.util.Task;
+import org.bukkit.block.Block;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Clears the blocks of plots that players have left, spread over multiple ticks.
+ * <p>
+ * Every tick, at most {@link Option#CLEANUP_BUDGET} blocks are handed to the {@link BlockPlacer}, so a lot of players
+ * leaving at once (e.g. when an event ends) doesn't clear every plot in the same tick.
+ * Since the {@link BlockPlacer} applies changes to the same chunk section in order, blocks that were still being placed
+ * when a player left are always placed before they are cleared.
+ * Only use this on the main thread.
+ */
+public class PlotCleaner {
+
+    /**
+     * The blocks of a plot that are being cleared.
+     */
+    private static class Job {
+
+        private final List<Block> blocks;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private int submitted = 0;
+        private int pending = 0;
+
+        private Job(List<Block> blocks) {
+            this.blocks = blocks;
+        }
+    }
+
+    private final ArrayDeque<Job> queue = new ArrayDeque<>();
+
+    private int activeJobs = 0;
+    private int queuedBlocks = 0;
+    private long clearedBlocks = 0;
+
+    // blocks cleared since the drain rate has last been updated, and the amount of ticks that has taken
+    private int clearedWindow = 0;
+    private int windowTicks = 0;
+    private int drainRate = 0;
+
+    private BukkitTask task;
+
+    /**
+     * Starts the repeating task that clears the queued plots.
+     */
+    public void start() {
+        if (task != null) {
+            return;
+        }
+
+        task = Task.create(IP.getPlugin())
+                .repeat(1)
+                .execute(() -> submit(Option.CLEANUP_BUDGET))
+                .run();
+    }
+
+    /**
+     * Stops the repeating task and hands all queued blocks to the {@link BlockPlacer}, which places them once it is stopped.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        submit(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Queues the blocks of a plot to be cleared. Once stopped, the blocks are handed to the {@link BlockPlacer} immediately.
+     *
+     * @param   blocks
+     *          The blocks
+     *
+     * @return a future that completes on the main thread once all blocks have been set to air.
+     */
+    public @NotNull CompletableFuture<Void> clear(@NotNull List<Block> blocks) {
+        Job job = new Job(blocks);
+        if (blocks.isEmpty()) {
+            job.completion.complete(null);
+            return job.completion;
+        }
+
+        queue.add(job);
+        activeJobs++;
+        queuedBlocks += blocks.size();
+
+        if (task == null) { // e.g. an island that is placed while the plugin is disabling
+            submit(Integer.MAX_VALUE);
+        }
+        return job.completion;
+    }
+
+    // hands queued blocks to the block placer, oldest plots first
+    private void submit(int budget) {
+        if (budget <= 0) {
+            budget = Integer.MAX_VALUE;
+        }
+
+        while (budget > 0 && !queue.isEmpty()) {
+            Job job = queue.peek();
+            int amount = Math.min(budget, job.blocks.size() - job.submitted);
+            List<Block> part = job.blocks.subList(job.submitted, job.submitted + amount);
+
+            job.submitted += amount;
+            job.pending++;
+            budget -= amount;
+            if (job.submitted == job.blocks.size()) {
+                queue.poll();
+            }
+
+            IP.getBlockPlacer().setAir(part).thenRun(() -> cleared(job, amount));
+        }
+
+        if (++windowTicks >= 20) {
+            drainRate = clearedWindow;
+            clearedWindow = 0;
+            windowTicks = 0;
+        }
+    }
+
+    private void cleared(Job job, int amount) {
+        queuedBlocks -= amount;
+        clearedBlocks += amount;
+        clearedWindow += amount;
+
+        if (--job.pending == 0 && job.submitted == job.blocks.size()) {
+            activeJobs--;
+            job.completion.complete(null);
+        }
+    }
+
+    /**
+     * @return the amount of plots that haven't been fully cleared yet.
+     */
+    public int getQueuedPlots() {
+        return activeJobs;
+    }
+
+    /**
+     * @return the amount of blocks that haven't been cleared yet.
+     */
+    public int getQueuedBlocks() {
+        return queuedBlocks;
+    }
+
+    /**
+     * @return the amount of blocks cleared in the last second.
+     */
+    public int getDrainRate() {
+        return drainRate;
+    }
+
+    /**
+     * @return the amount of blocks cleared since the server started.
+     */
+    public long getClearedBlocks() {
+        return clearedBlocks;
+    }
+}
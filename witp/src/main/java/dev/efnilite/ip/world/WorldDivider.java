@@ -8,14 +8,19 @@ import dev.efnilite.ip.generator.DefaultGenerator;
 import dev.efnilite.ip.generator.base.ParkourGenerator;
 import dev.efnilite.ip.generator.data.AreaData;
 import dev.efnilite.ip.player.ParkourPlayer;
+import dev.efnilite.ip.player.ParkourUser;
 import dev.efnilite.ip.schematic.RotationAngle;
 import dev.efnilite.ip.schematic.Schematic;
+import dev.efnilite.ip.schematic.SchematicBlock;
+import dev.efnilite.ip.schematic.SchematicCache;
+import dev.efnilite.ip.schematic.SchematicPaste;
 import dev.efnilite.ip.schematic.selection.Selection;
 import dev.efnilite.ip.util.Util;
 import dev.efnilite.vilib.inventory.item.Item;
 import dev.efnilite.vilib.util.Task;
 import dev.efnilite.vilib.vector.Vector2D;
 import dev.efnilite.vilib.vector.Vector3D;
+import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -23,13 +28,18 @@ import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Divides the Parkour world into sections so there can be an infinite amount of players in 1 world.
+ * <p>
+ * If there are multiple parkour worlds (see {@link Option#WORLD_SHARDS}), every world is divided separately,
+ * and new plots are placed in the world with the fewest plots in use.
  *
  * @author Efnilite
  */
@@ -43,15 +53,127 @@ public class WorldDivider {
     private final Material parkourSpawn;
 
     /**
-     * Spaces which have been previously generated but now have no players, so instead of generating a new point
-     * it just picks an old one without any players.
+     * The plots of every parkour world, by shard number.
      */
-    private final Queue<Vector2D> cachedPoints = new LinkedList<>(); // final to reduce chance of thread collision
+    private final Shard[] shards;
 
     /**
-     * Currently active points
+     * Currently active plots, by the uuid of the player
      */
-    private final HashMap<ParkourPlayer, Vector2D> activePoints = new HashMap<>();
+    private final HashMap<UUID, Plot> activePlots = new HashMap<>();
+
+    /**
+     * Islands that have been pasted ahead of time at points that haven't been handed out yet, in the order they were prepared.
+     * Joining players claim these, so they don't have to wait for an island to be pasted.
+     */
+    private final Deque<PreparedIsland> preparedIslands = new ArrayDeque<>();
+
+    /**
+     * The spawn island the markers have been searched for, and the relative positions of the markers in it.
+     * These only change when the spawn island is reloaded.
+     */
+    private Schematic markedIsland;
+    private boolean hasMarkers;
+    private Vector3D playerOffset;
+    private Vector3D parkourOffset;
+
+    /**
+     * Islands that are being placed for active players, by {@link Plot#key()}.
+     */
+    private final Map<Long, PreparedIsland> placingIslands = new HashMap<>();
+
+    /**
+     * The chunks that are kept loaded around active players, by {@link Plot#key()}.
+     */
+    private final Map<Long, Set<Long>> heldChunks = new HashMap<>();
+
+    private BukkitTask poolTask;
+
+    private final ChunkPrewarmer prewarmer = new ChunkPrewarmer();
+    private final PlotCleaner cleaner = new PlotCleaner();
+
+    /**
+     * The plots of a single parkour world.
+     */
+    private static class Shard {
+
+        private final int number;
+
+        /**
+         * Spiral indices of plots which have been used before but now have no players, lowest first.
+         * The lowest free index is always handed out first, so active plots stay close to the center.
+         */
+        private final PriorityQueue<Integer> freeIndices = new PriorityQueue<>();
+
+        /**
+         * The lowest spiral index that has never been handed out. Every index below this is either in use or free.
+         */
+        private int nextIndex = 0;
+
+        /**
+         * The amount of plots that are in use: active, prepared or being cleared.
+         */
+        private int load = 0;
+
+        private Shard(int number) {
+            this.number = number;
+        }
+    }
+
+    /**
+     * A plot in a parkour world.
+     *
+     * @param   shard
+     *          The number of the parkour world
+     *
+     * @param   index
+     *          The index of the plot in the spiral, see {@link Util#spiralAt(int)}
+     *
+     * @param   point
+     *          The point of the plot
+     */
+    private record Plot(int shard, int index, Vector2D point) {
+
+        /**
+         * @return a key that is unique over all parkour worlds.
+         */
+        private long key() {
+            return ((long) shard << 32) | index;
+        }
+
+        private World world() {
+            return IP.getWorldHandler().getWorld(shard);
+        }
+    }
+
+    /**
+     * An island that has been pasted at a point.
+     *
+     * @param   plot
+     *          The plot of the island
+     *
+     * @param   schematic
+     *          The spawn island schematic that has been pasted
+     *
+     * @param   paste
+     *          The paste of the island
+     *
+     * @param   ready
+     *          A future that completes once the island has been placed and the markers have been removed
+     *
+     * @param   spawn
+     *          The location the island has been pasted at
+     *
+     * @param   playerBlock
+     *          The block the player spawns on
+     *
+     * @param   parkourBlock
+     *          The block the parkour begins at
+     */
+    private record PreparedIsland(Plot plot, Schematic schematic, SchematicPaste paste, CompletableFuture<Void> ready, Location spawn,
+                                  Block playerBlock, Block parkourBlock) {
+
+    }
 
     /**
      * New instance of the SubareaDivider
@@ -67,6 +189,11 @@ public class WorldDivider {
         this.parkourSpawn = Material.getMaterial(gen.getString("advanced.island.parkour.begin-block").toUpperCase());
 
         this.spawnIsland = new Schematic().file("spawn-island.witp");
+
+        this.shards = new Shard[Math.max(1, Option.WORLD_SHARDS)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
     }
 
     /**
@@ -78,12 +205,8 @@ public class WorldDivider {
      * @return the point of the player
      */
     public @Nullable Vector2D getPoint(@NotNull ParkourPlayer player) {
-        for (ParkourPlayer loopPlayer : activePoints.keySet()) {
-            if (loopPlayer == player) {
-                return activePoints.get(loopPlayer);
-            }
-        }
-        return null;
+        Plot plot = activePlots.get(player.getUUID());
+        return plot == null ? null : plot.point();
     }
 
     /**
@@ -96,41 +219,174 @@ public class WorldDivider {
         this.generate(player, null, true);
     }
 
-    public synchronized Vector2D generate(@NotNull ParkourPlayer player, @Nullable ParkourGenerator generator, boolean generateIsland) {
-        if (getPoint(player) != null) { // player already has assigned point
-            return getPoint(player);
+    /**
+     * Generates an area for the player. If none of the parkour worlds exist, the player is unregistered again.
+     *
+     * @param   player
+     *          The player
+     *
+     * @param   generator
+     *          The generator, or null to use a DefaultGenerator
+     *
+     * @param   generateIsland
+     *          Whether the spawn island should be placed
+     *
+     * @return the point of the player's plot, or null if the player couldn't be given a plot.
+     */
+    public synchronized @Nullable Vector2D generate(@NotNull ParkourPlayer player, @Nullable ParkourGenerator generator, boolean generateIsland) {
+        Plot existing = activePlots.get(player.getUUID());
+        if (existing != null) { // player already has assigned point
+            return existing.point();
         }
 
-        if (cachedPoints.size() > 0) { // check for leftover spots, if none are left just generate a new one
-            Vector2D cachedPoint = cachedPoints.poll(); // get top result
+        PreparedIsland prepared = generateIsland ? claimPreparedIsland() : null;
+        Shard shard = leastLoaded();
+        if (prepared == null && shard == null) {
+            IP.logging().stack("None of the parkour worlds exist", "delete the parkour world folders and restart the server");
 
-            if (cachedPoint == null) { // if cachedPoint is somehow still null after checking size (to remove @NotNull warning)
-                generate(player, generator, generateIsland);
-                return getPoint(player);
-            }
+            // the player has already been registered, so don't leave them in parkour without a plot
+            ParkourUser.unregister(player, true, false, true);
+            player.send(IP.PREFIX + Locales.getString(player.getLocale(), "other.no_do", false));
+            return null;
+        }
+        Plot plot = prepared != null ? prepared.plot() : allocate(shard);
 
-            activePoints.put(player, cachedPoint);
-            if (generator != null) {
-                player.setGenerator(generator);
-            }
-            if (generateIsland) {
-                createIsland(player, cachedPoint);
+        activePlots.put(player.getUUID(), plot);
+        prewarmer.release(plot.key());
+        if (generator != null) {
+            player.setGenerator(generator);
+        }
+        if (generateIsland) {
+            createIsland(player, plot, prepared);
+        }
+        return plot.point();
+    }
+
+    // the shard with the fewest plots in use, preferring lower shard numbers. shards without a world are skipped
+    private @Nullable Shard leastLoaded() {
+        Shard least = null;
+        for (Shard shard : shards) {
+            if (IP.getWorldHandler().hasWorld(shard.number) && (least == null || shard.load < least.load)) {
+                least = shard;
             }
-            return cachedPoint;
-        } else {
-            int size = activePoints.size();
-            int[] coords = Util.spiralAt(size);
-            Vector2D point = new Vector2D(coords[0], coords[1]);
-
-            activePoints.put(player, point);
-            if (generator != null) {
-                player.setGenerator(generator);
+        }
+        return least;
+    }
+
+    // takes the lowest free spiral index of a shard, or a new one if all used indices are taken
+    private Plot allocate(Shard shard) {
+        Integer free = shard.freeIndices.poll();
+        int index = free != null ? free : shard.nextIndex++;
+        shard.load++;
+
+        return plotAt(shard.number, index);
+    }
+
+    private Plot plotAt(int shard, int index) {
+        int[] coords = Util.spiralAt(index);
+        return new Plot(shard, index, new Vector2D(coords[0], coords[1]));
+    }
+
+    // makes a plot available again, once it has been fully cleared
+    private synchronized void free(Plot plot) {
+        Shard shard = shards[plot.shard()];
+        shard.freeIndices.add(plot.index());
+        shard.load--;
+    }
+
+    // takes the prepared island in the least loaded shard, if it is still of the current spawn island
+    private @Nullable PreparedIsland claimPreparedIsland() {
+        PreparedIsland claimed = null;
+        for (PreparedIsland island : preparedIslands) {
+            if (island.schematic() != getSpawnIsland()) {
+                continue;
             }
-            if (generateIsland) {
-                createIsland(player, point);
+            if (claimed == null || shards[island.plot().shard()].load < shards[claimed.plot().shard()].load) {
+                claimed = island;
             }
-            return point;
         }
+
+        if (claimed != null) {
+            preparedIslands.remove(claimed);
+        }
+        return claimed;
+    }
+
+    /**
+     * Starts the background tasks of the divider.
+     * <p>
+     * Spawn islands are prepared in the background, so joining players don't have to wait for their island to be pasted.
+     * Every second, an island is pasted at the next free point if fewer than {@link Option#ISLAND_POOL_SIZE} islands are ready
+     * and no other blocks are waiting to be placed. The chunks of the plots that will be handed out next are loaded ahead of time,
+     * and the chunks around active players are kept loaded (see {@link Option#PLOT_CHUNK_RADIUS}).
+     * Plots that players have left are cleared over multiple ticks by the {@link PlotCleaner}, after which their chunks may be unloaded.
+     */
+    public void start() {
+        if (poolTask != null) {
+            return;
+        }
+
+        prewarmer.start();
+        cleaner.start();
+
+        poolTask = Task.create(IP.getPlugin())
+                .repeat(20)
+                .execute(() -> {
+                    fillPool();
+                    updateChunks();
+                })
+                .run();
+    }
+
+    /**
+     * Stops preparing spawn islands, releases all pre-warmed and held chunks and hands all plots that are still being cleared
+     * to the {@link BlockPlacer}, including the prepared islands, so no islands are left behind in the world.
+     */
+    public synchronized void stop() {
+        if (poolTask != null) {
+            poolTask.cancel();
+            poolTask = null;
+        }
+
+        preparedIslands.forEach(this::discard);
+        preparedIslands.clear();
+
+        new ArrayList<>(activePlots.values()).forEach(plot -> hold(plot, Collections.emptySet()));
+        prewarmer.stop();
+        cleaner.stop();
+    }
+
+    private synchronized void fillPool() {
+        if (!SchematicCache.isReady() || leastLoaded() == null) {
+            return;
+        }
+
+        Schematic island = getSpawnIsland();
+        if (!preparedIslands.isEmpty() && preparedIslands.peek().schematic() != island) { // spawn island has been reloaded
+            preparedIslands.forEach(this::discard);
+            preparedIslands.clear();
+        }
+
+        prewarm(island);
+
+        // only use idle ticks
+        if (preparedIslands.size() >= Option.ISLAND_POOL_SIZE || IP.getBlockPlacer().size() > 0) {
+            return;
+        }
+
+        Plot plot = allocate(leastLoaded());
+        PreparedIsland prepared = prepareIsland(plot);
+        if (prepared == null) {
+            free(plot);
+            return;
+        }
+        preparedIslands.add(prepared);
+    }
+
+    // clears a prepared island that will never be handed out once it has been placed, then frees its plot
+    private void discard(PreparedIsland prepared) {
+        List<Block> blocks = prepared.paste().getBlocks();
+        prepared.ready().thenRun(() -> cleaner.clear(blocks).thenRun(() -> release(prepared.plot(), blocks)));
     }
 
     /**
@@ -141,75 +397,266 @@ public class WorldDivider {
      *          The player
      */
     public synchronized void leave(@NotNull ParkourPlayer player) {
-        Vector2D point = getPoint(player);
+        Plot plot = activePlots.remove(player.getUUID());
+        if (plot == null) {
+            return;
+        }
+        hold(plot, Collections.emptySet());
+
+        List<Block> blocks = new ArrayList<>();
+        if (player.getGenerator() instanceof DefaultGenerator generator && generator.getData() != null) {
+            blocks.addAll(generator.getData().blocks());
+        }
+
+        // the plot is only handed out again once all blocks have been cleared, including an island that is still being placed
+        PreparedIsland placing = placingIslands.remove(plot.key());
+        CompletableFuture<Void> placed = CompletableFuture.completedFuture(null);
+        if (placing != null) {
+            blocks.addAll(placing.paste().getBlocks());
+            placed = placing.ready();
+        }
 
-        cachedPoints.add(point);
-        activePoints.remove(player);
+        placed.thenRun(() -> cleaner.clear(blocks).thenRun(() -> release(plot, blocks)));
+    }
 
-        if (player.getGenerator() instanceof DefaultGenerator generator) {
-            AreaData data = generator.getData();
+    // frees a cleared plot. a freed plot is usually the next one to be handed out, so its chunks are only unloaded if it isn't about to be warmed again
+    private synchronized void release(Plot plot, List<Block> blocks) {
+        free(plot);
+        if (!predictPlots().containsKey(plot.key())) {
+            unloadChunks(plot, blocks);
+        }
+    }
 
-            if (data != null) {
-                for (Block block : data.blocks()) {
-                    block.setType(Material.AIR, false);
+    // keeps the chunks around every active player loaded, without going past the border of their plot
+    private synchronized void updateChunks() {
+        int radius = Option.PLOT_CHUNK_RADIUS;
+        int half = (int) (Option.BORDER_SIZE / 2);
+
+        for (Map.Entry<UUID, Plot> entry : activePlots.entrySet()) {
+            Plot plot = entry.getValue();
+            Player player = Bukkit.getPlayer(entry.getKey());
+
+            Set<Long> wanted = new HashSet<>();
+            if (radius > 0 && player != null && player.getWorld() == plot.world() && !placingIslands.containsKey(plot.key())) {
+                Vector3D center = getEstimatedCenter(plot.point(), Option.BORDER_SIZE);
+                int minX = ((int) center.x - half) >> 4;
+                int maxX = ((int) center.x + half) >> 4;
+                int minZ = ((int) center.z - half) >> 4;
+                int maxZ = ((int) center.z + half) >> 4;
+
+                Location location = player.getLocation();
+                for (int x = (location.getBlockX() >> 4) - radius; x <= (location.getBlockX() >> 4) + radius; x++) {
+                    for (int z = (location.getBlockZ() >> 4) - radius; z <= (location.getBlockZ() >> 4) + radius; z++) {
+                        if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+                            wanted.add(ChunkTickets.key(x, z));
+                        }
+                    }
                 }
             }
+
+            hold(plot, wanted);
         }
     }
 
-    private synchronized void createIsland(@NotNull ParkourPlayer pp, @NotNull Vector2D point) {
-        World world = IP.getWorldHandler().getWorld();
-
-        Location spawn = getEstimatedCenter(point, Option.BORDER_SIZE).toLocation(world).clone();
+    // changes the chunks that are kept loaded for a plot, releasing the ones that are no longer wanted
+    private void hold(Plot plot, Set<Long> wanted) {
+        Set<Long> held = heldChunks.computeIfAbsent(plot.key(), k -> new HashSet<>());
+        World world = plot.world();
+
+        Iterator<Long> iterator = held.iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.next();
+            if (!wanted.contains(key)) {
+                IP.getChunkTickets().release(world, ChunkTickets.getX(key), ChunkTickets.getZ(key));
+                iterator.remove();
+            }
+        }
+        for (long key : wanted) {
+            if (held.add(key)) {
+                IP.getChunkTickets().acquire(world, ChunkTickets.getX(key), ChunkTickets.getZ(key));
+            }
+        }
 
-        // --- Schematic pasting ---
-        Vector3D dimension = spawnIsland.getDimensions().toVector3D();
-        spawn.setY(spawn.getY() - dimension.y);
-        List<Block> blocks = spawnIsland.paste(spawn, RotationAngle.ANGLE_0);
+        if (held.isEmpty()) {
+            heldChunks.remove(plot.key());
+        }
+    }
 
-        Location to = null;
-        Location parkourBegin = null;
-        boolean playerDetected = false;
-        boolean parkourDetected = false;
+    // asks the server to unload the chunks of a plot that has been cleared, since nothing will be there until it is handed out again
+    private void unloadChunks(Plot plot, List<Block> blocks) {
+        World world = plot.world();
+        Set<Long> chunks = new HashSet<>();
         for (Block block : blocks) {
-            if (playerDetected && parkourDetected) {
-                break;
+            chunks.add(ChunkTickets.key(block.getX() >> 4, block.getZ() >> 4));
+        }
+
+        for (long key : chunks) {
+            IP.getChunkTickets().requestUnload(world, ChunkTickets.getX(key), ChunkTickets.getZ(key));
+        }
+    }
+
+    private synchronized void createIsland(@NotNull ParkourPlayer pp, @NotNull Plot plot, @Nullable PreparedIsland prepared) {
+        PreparedIsland island = prepared != null ? prepared : prepareIsland(plot);
+        if (island == null) {
+            return;
+        }
+
+        World world = plot.world();
+
+        // get zone
+        pp.getGenerator().setZone(getZone(island.spawn()));
+
+        // wait until the island has been placed before teleporting the player, which is immediately if it was prepared
+        placingIslands.put(plot.key(), island);
+        island.ready().thenRun(() -> {
+            if (placingIslands.get(plot.key()) != island) { // player left while the island was being placed, which clears it
+                return;
             }
-            Material type = block.getType();
-            if (type == playerSpawn && !playerDetected) {
-                to = block.getLocation().clone().add(0.5, 0, 0.5);
-                to.setPitch(spawnPitch);
-                to.setYaw(spawnYaw);
-                to.setWorld(world);
-                block.setType(Material.AIR);
-                playerDetected = true;
-            } else if (type == parkourSpawn && !parkourDetected) {
-                parkourBegin = block.getLocation().clone();
-                block.setType(Material.AIR);
-                parkourDetected = true;
+            placingIslands.remove(plot.key());
+
+            Location to = island.playerBlock().getLocation().clone().add(0.5, 0, 0.5);
+            to.setPitch(spawnPitch);
+            to.setYaw(spawnYaw);
+            to.setWorld(world);
+            Location parkourBegin = island.parkourBlock().getLocation().clone();
+
+            if (pp.getGenerator() instanceof DefaultGenerator defaultGenerator) {
+                defaultGenerator.setData(new AreaData(island.paste().getBlocks()));
+                defaultGenerator.generateFirst(to.clone(), parkourBegin.clone());
+            }
+
+            // setup inventory, etc.
+            setup(pp, to, true);
+        });
+    }
+
+    // loads the chunks of the prepared islands and the plots that will be handed out next
+    private void prewarm(Schematic island) {
+        Map<Long, Plot> expected = predictPlots();
+        prewarmer.retain(expected.keySet());
+
+        // the island is pasted from the center, so warm the area it covers with a chunk of margin
+        Vector3D dimension = island.getDimensions().toVector3D();
+        for (Plot plot : expected.values()) {
+            Vector3D center = getEstimatedCenter(plot.point(), Option.BORDER_SIZE);
+
+            prewarmer.warm(plot.key(), plot.world(), (int) center.x - 16, (int) center.z - 16,
+                    (int) (center.x + dimension.x) + 16, (int) (center.z + dimension.z) + 16);
+        }
+    }
+
+    // the plots of the prepared islands and the next plots allocate will hand out, by key
+    private synchronized Map<Long, Plot> predictPlots() {
+        Map<Long, Plot> expected = new HashMap<>();
+        if (Option.CHUNK_PREWARM > 0) {
+            preparedIslands.forEach(prepared -> expected.put(prepared.plot().key(), prepared.plot()));
+
+            // hand out plots the same way as allocate, without changing the shards
+            int[] loads = new int[shards.length];
+            int[] next = new int[shards.length];
+            boolean[] available = new boolean[shards.length];
+            List<PriorityQueue<Integer>> free = new ArrayList<>(shards.length);
+            for (Shard shard : shards) {
+                loads[shard.number] = shard.load;
+                next[shard.number] = shard.nextIndex;
+                available[shard.number] = IP.getWorldHandler().hasWorld(shard.number);
+                free.add(new PriorityQueue<>(shard.freeIndices));
+            }
+
+            for (int i = 0; i < Option.CHUNK_PREWARM; i++) {
+                int least = -1;
+                for (int shard = 0; shard < shards.length; shard++) {
+                    if (available[shard] && (least == -1 || loads[shard] < loads[least])) {
+                        least = shard;
+                    }
+                }
+                if (least == -1) {
+                    break;
+                }
+
+                Integer index = free.get(least).poll();
+                Plot plot = plotAt(least, index != null ? index : next[least]++);
+                loads[least]++;
+                expected.put(plot.key(), plot);
             }
         }
-        if (!playerDetected) {
+        return expected;
+    }
+
+    // pastes the spawn island at a point, removing the markers once it has been placed
+    private @Nullable PreparedIsland prepareIsland(@NotNull Plot plot) {
+        World world = plot.world();
+        Schematic island = getSpawnIsland();
+        if (!findMarkers(island)) {
+            return null;
+        }
+
+        Location spawn = getEstimatedCenter(plot.point(), Option.BORDER_SIZE).toLocation(world).clone();
+        Vector3D dimension = island.getDimensions().toVector3D();
+        spawn.setY(spawn.getY() - dimension.y);
+
+        SchematicPaste paste = island.paste(spawn, RotationAngle.ANGLE_0);
+
+        // all blocks are pasted relative to the spawn, so the markers can be found without searching the paste
+        Block playerBlock = world.getBlockAt(spawn.getBlockX() + (int) playerOffset.x, spawn.getBlockY() + (int) playerOffset.y, spawn.getBlockZ() + (int) playerOffset.z);
+        Block parkourBlock = world.getBlockAt(spawn.getBlockX() + (int) parkourOffset.x, spawn.getBlockY() + (int) parkourOffset.y, spawn.getBlockZ() + (int) parkourOffset.z);
+
+        // only ready once the markers have actually been set to air, not just queued
+        CompletableFuture<Void> ready = paste.getCompletion()
+                .thenCompose(v -> IP.getBlockPlacer().setAir(List.of(playerBlock, parkourBlock)));
+
+        return new PreparedIsland(plot, island, paste, ready, spawn, playerBlock, parkourBlock);
+    }
+
+    // finds the relative positions of the markers once per spawn island, returning false if one is missing
+    private boolean findMarkers(Schematic island) {
+        if (island == markedIsland) {
+            return hasMarkers;
+        }
+        markedIsland = island;
+        hasMarkers = false;
+
+        SchematicBlock player = island.findFromMaterial(playerSpawn);
+        if (player == null) {
             IP.logging().stack("Couldn't find the spawn of a player", "check your block types and schematics");
-            blocks.forEach(b -> b.setType(Material.AIR, false));
-            createIsland(pp, point);
+            return false;
         }
-        if (!parkourDetected) {
+        SchematicBlock parkour = island.findFromMaterial(parkourSpawn);
+        if (parkour == null) {
             IP.logging().stack("Couldn't find the spawn of the parkour", "check your block types and schematics");
-            blocks.forEach(b -> b.setType(Material.AIR, false));
-            createIsland(pp, point);
+            return false;
         }
 
-        // get zone
-        pp.getGenerator().setZone(getZone(spawn));
+        playerOffset = player.getRelativePosition();
+        parkourOffset = parkour.getRelativePosition();
+        hasMarkers = true;
+        return true;
+    }
 
-        if (to != null && parkourBegin != null && pp.getGenerator() instanceof DefaultGenerator defaultGenerator) {
-            defaultGenerator.setData(new AreaData(blocks));
-            defaultGenerator.generateFirst(to.clone(), parkourBegin.clone());
-        }
+    // uses the cached island if the cache has been loaded, otherwise reads the island on this thread
+    private Schematic getSpawnIsland() {
+        Schematic cached = SchematicCache.isReady() ? SchematicCache.getSchematic("spawn-island.witp") : null;
 
-        // setup inventory, etc.
-        setup(pp, to, true);
+        return cached != null ? cached : spawnIsland;
+    }
+
+    /**
+     * @return a summary of the plots: the amount of active and prepared plots, the plots of every parkour world,
+     * the state of the cleanup queue and the chunks that are kept loaded.
+     */
+    public synchronized @NotNull List<String> getStatistics() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Plots: %d active, %d prepared".formatted(activePlots.size(), preparedIslands.size()));
+        for (Shard shard : shards) {
+            lines.add("World %s: %d plot(s) in use, %d free (%d ever used)".formatted(
+                    IP.getWorldHandler().getName(shard.number), shard.load, shard.freeIndices.size(), shard.nextIndex));
+        }
+        lines.add("Cleanup: %d plot(s) and %d block(s) queued, %d blocks/s (%d cleared in total)".formatted(
+                cleaner.getQueuedPlots(), cleaner.getQueuedBlocks(), cleaner.getDrainRate(), cleaner.getClearedBlocks()));
+        lines.add("Chunks: %d kept loaded (%d around players), %d unloaded in parkour worlds, %d unload requests for freed plots".formatted(
+                IP.getChunkTickets().size(), heldChunks.values().stream().mapToInt(Set::size).sum(),
+                IP.getChunkTickets().getUnloads(), IP.getChunkTickets().getUnloadRequests()));
+        return lines;
     }
 
     public void setup(ParkourPlayer pp, Location to, boolean runGenerator) {
@@ -5,26 +5,39 @@ import dev.efnilite.ip.config.Option;
 import dev.efnilite.ip.world.generation.VoidGenerator;
 import dev.efnilite.vilib.util.Version;
 import org.bukkit.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class for handling Parkour world generation/deletion, etc.
+ * <p>
+ * Plots can be spread over multiple identical worlds (shards), see {@link Option#WORLD_SHARDS}.
+ * The first shard uses the world name from the config, every other shard adds its number to that name (e.g. witp-1).
  */
 public class WorldHandler {
 
-    private World world;
+    private final World[] worlds = new World[Math.max(1, Option.WORLD_SHARDS)];
 
     /**
-     * Creates the parkour world with the name given in the config.
+     * Creates the parkour worlds with the name given in the config.
      */
     public void createWorld() {
-        String name = Option.WORLD_NAME;
+        for (int shard = 0; shard < worlds.length; shard++) {
+            createWorld(shard);
+        }
+    }
+
+    private void createWorld(int shard) {
+        String name = getName(shard);
         World world = Bukkit.getWorld(name);
 
         if (!Option.DELETE_ON_RELOAD) {
             if (world == null) {
-                create();
+                create(shard);
             }
             return;
         }
@@ -35,12 +48,13 @@ public class WorldHandler {
             IP.logging().warn("## This only happens after a server crash.");
             IP.logging().warn("## ");
         }
-        deleteWorld();
-        create();
+        deleteWorld(name);
+        create(shard);
     }
 
-    private void create() {
-        String name = Option.WORLD_NAME;
+    private void create(int shard) {
+        String name = getName(shard);
+        World world = null;
 
         if (IP.getMultiverseHook() != null) { // if multiverse isn't detected
             world = IP.getMultiverseHook().createWorld(name);
@@ -63,19 +77,26 @@ public class WorldHandler {
             }
         }
 
-        setupSettings();
+        worlds[shard] = world;
+        if (world != null) {
+            setupSettings(world);
+        }
     }
 
     /**
-     * Deletes the parkour world
+     * Deletes the parkour worlds
      */
     public void deleteWorld() {
+        for (int shard = 0; shard < worlds.length; shard++) {
+            deleteWorld(getName(shard));
+        }
+    }
+
+    private void deleteWorld(String name) {
         if (!Option.DELETE_ON_RELOAD) {
             return;
         }
 
-        String name = Option.WORLD_NAME;
-
         if (IP.getMultiverseHook() != null) {
             IP.getMultiverseHook().deleteWorld(name);
         } else {
@@ -89,7 +110,7 @@ public class WorldHandler {
 
     // Sets up the settings for the world
     @SuppressWarnings("deprecation")
-    private void setupSettings() {
+    private void setupSettings(World world) {
         if (Version.isHigherOrEqual(Version.V1_13)) {
             world.setGameRule(GameRule.DO_FIRE_TICK, false);
             world.setGameRule(GameRule.DO_MOB_SPAWNING, false);
@@ -116,17 +137,98 @@ public class WorldHandler {
     }
 
     /**
-     * Gets the IP Bukkit world.
+     * Gets the name of a shard.
+     *
+     * @param   shard
+     *          The number of the shard, starting at 0
+     *
+     * @return the world name of the shard.
+     */
+    public @NotNull String getName(int shard) {
+        return shard == 0 ? Option.WORLD_NAME : Option.WORLD_NAME + "-" + shard;
+    }
+
+    /**
+     * Gets the IP Bukkit world. If plots are spread over multiple worlds, this is the first one.
      *
      * @return the Bukkit world wherein IP is currently active.
      */
     public World getWorld() {
-        if (world == null) {
-            world = Bukkit.getWorld(Option.WORLD_NAME);
-            if (world == null) {
+        return getWorld(0);
+    }
+
+    /**
+     * Gets the world of a shard.
+     *
+     * @param   shard
+     *          The number of the shard, starting at 0
+     *
+     * @return the Bukkit world of this shard.
+     */
+    public World getWorld(int shard) {
+        if (worlds[shard] == null) {
+            worlds[shard] = Bukkit.getWorld(getName(shard));
+            if (worlds[shard] == null) {
                 IP.logging().stack("World is null", "delete the parkour world folder and restart the server");
             }
         }
-        return world;
+        return worlds[shard];
+    }
+
+    /**
+     * Returns whether the world of a shard exists, without logging an error if it doesn't.
+     *
+     * @param   shard
+     *          The number of the shard, starting at 0
+     *
+     * @return true if the world exists, false if it couldn't be created.
+     */
+    public boolean hasWorld(int shard) {
+        if (worlds[shard] == null) {
+            worlds[shard] = Bukkit.getWorld(getName(shard));
+        }
+        return worlds[shard] != null;
+    }
+
+    /**
+     * @return all parkour worlds that exist, ordered by shard.
+     */
+    public @NotNull List<World> getWorlds() {
+        List<World> worlds = new ArrayList<>(this.worlds.length);
+        for (int shard = 0; shard < this.worlds.length; shard++) {
+            World world = getWorld(shard);
+            if (world != null) {
+                worlds.add(world);
+            }
+        }
+        return worlds;
+    }
+
+    /**
+     * @return the amount of shards.
+     */
+    public int getShards() {
+        return worlds.length;
+    }
+
+    /**
+     * Returns whether a world is one of the parkour worlds.
+     *
+     * @param   world
+     *          The world
+     *
+     * @return true if it is a parkour world, false if not.
+     */
+    public boolean isParkourWorld(@Nullable World world) {
+        if (world == null) {
+            return false;
+        }
+
+        for (int shard = 0; shard < worlds.length; shard++) {
+            if (world.getName().equals(getName(shard))) {
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package dev.efnilite.ip.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunSeedTest {
+
+    @Test
+    void fixedSeedRepeatsEveryRun() {
+        RunSeed runSeed = new RunSeed();
+        Random random = new Random();
+
+        runSeed.fix(42);
+
+        assertTrue(runSeed.start(random::setSeed));
+        long[] first = run(random);
+        assertTrue(runSeed.start(random::setSeed));
+        assertArrayEquals(first, run(random));
+    }
+
+    @Test
+    void runsDifferAfterClear() {
+        RunSeed runSeed = new RunSeed();
+        Random random = new Random();
+
+        runSeed.fix(42);
+        runSeed.start(random::setSeed);
+        long[] seeded = run(random);
+
+        random.setSeed(runSeed.clear());
+
+        assertFalse(runSeed.start(random::setSeed));
+        long[] first = run(random);
+        assertFalse(runSeed.start(random::setSeed));
+        long[] second = run(random);
+
+        assertFalse(Arrays.equals(first, second));
+        assertFalse(Arrays.equals(seeded, first));
+    }
+
+    @Test
+    void unseededRunsAreNotReseeded() {
+        RunSeed runSeed = new RunSeed();
+
+        assertFalse(runSeed.start(seed -> fail("reseeded without a fixed seed")));
+    }
+
+    // the choices of a single run
+    private long[] run(Random random) {
+        long[] choices = new long[8];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = random.nextLong();
+        }
+        return choices;
+    }
+}
@@ -0,0 +1,161 @@
+package dev.efnilite.ip.generator.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexBufferTest {
+
+    @Test
+    void packRoundTrip() {
+        int[][] positions = {
+                { 0, 0, 0 },
+                { 1, -1, 1 },
+                { -1, 2047, -1 },
+                { 33554431, -2048, -33554432 },
+                { -33554432, 319, 33554431 },
+                { 12345, -64, -98765 }
+        };
+
+        for (int[] position : positions) {
+            long packed = PositionIndexBuffer.pack(position[0], position[1], position[2]);
+
+            assertEquals(position[0], PositionIndexBuffer.unpackX(packed));
+            assertEquals(position[1], PositionIndexBuffer.unpackY(packed));
+            assertEquals(position[2], PositionIndexBuffer.unpackZ(packed));
+        }
+    }
+
+    @Test
+    void storesEveryPackedValue() {
+        PositionIndexBuffer buffer = new PositionIndexBuffer(4);
+
+        // packs to Long.MIN_VALUE
+        assertEquals(Long.MIN_VALUE, PositionIndexBuffer.pack(-33554432, 0, 0));
+        assertEquals(0, buffer.add(-33554432, 0, 0));
+        assertEquals(1, buffer.add(0, 0, 0));
+
+        assertEquals(0, buffer.indexOf(-33554432, 0, 0));
+        assertEquals(1, buffer.indexOf(0, 0, 0));
+        assertEquals(-1, buffer.indexOf(1, 0, 0));
+    }
+
+    @Test
+    void addAndPollInOrder() {
+        PositionIndexBuffer buffer = new PositionIndexBuffer(3);
+
+        assertEquals(0, buffer.add(1, 2, 3));
+        assertEquals(1, buffer.add(4, 5, 6));
+        assertEquals(2, buffer.add(7, 8, 9));
+        assertEquals(3, buffer.size());
+        assertEquals(PositionIndexBuffer.pack(4, 5, 6), buffer.get(1));
+
+        assertEquals(PositionIndexBuffer.pack(1, 2, 3), buffer.pollOldest());
+        assertEquals(1, buffer.getOldestIndex());
+        assertEquals(-1, buffer.indexOf(1, 2, 3));
+        assertEquals(1, buffer.indexOf(4, 5, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(0));
+    }
+
+    @Test
+    void rejectsAddWhenFull() {
+        PositionIndexBuffer buffer = new PositionIndexBuffer(2);
+
+        buffer.add(0, 0, 0);
+        buffer.add(1, 0, 0);
+
+        assertTrue(buffer.isFull());
+        assertThrows(IllegalStateException.class, () -> buffer.add(2, 0, 0));
+    }
+
+    @Test
+    void keepsReaddedPositionWhenOldestIsPolled() {
+        PositionIndexBuffer buffer = new PositionIndexBuffer(4);
+
+        buffer.add(5, 5, 5);
+        buffer.add(6, 6, 6);
+        buffer.add(5, 5, 5);
+
+        buffer.pollOldest();
+
+        assertEquals(2, buffer.indexOf(5, 5, 5));
+    }
+
+    @Test
+    void wrapsAround() {
+        PositionIndexBuffer buffer = new PositionIndexBuffer(4);
+
+        for (int i = 0; i < 100; i++) {
+            if (buffer.isFull()) {
+                buffer.pollOldest();
+            }
+            assertEquals(i, buffer.add(i, 0, -i));
+        }
+
+        assertEquals(4, buffer.size());
+        assertEquals(96, buffer.getOldestIndex());
+        for (int i = 96; i < 100; i++) {
+            assertEquals(i, buffer.indexOf(i, 0, -i));
+            assertEquals(PositionIndexBuffer.pack(i, 0, -i), buffer.get(i));
+        }
+        assertEquals(-1, buffer.indexOf(95, 0, -95));
+    }
+
+    @Test
+    void clearResetsIndices() {
+        PositionIndexBuffer buffer = new PositionIndexBuffer(4);
+        buffer.add(1, 1, 1);
+        buffer.add(2, 2, 2);
+
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(-1, buffer.indexOf(1, 1, 1));
+        assertEquals(0, buffer.add(2, 2, 2));
+    }
+
+    // compares lookups with a map while positions collide, are removed and the table wraps around
+    @Test
+    void matchesMapWithDeletions() {
+        PositionIndexBuffer buffer = new PositionIndexBuffer(64);
+        Map<Long, Integer> expected = new HashMap<>();
+        ArrayDeque<Long> order = new ArrayDeque<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            if (buffer.isFull() || (!buffer.isEmpty() && random.nextInt(3) == 0)) {
+                int oldest = buffer.getOldestIndex();
+                long added = order.poll();
+                long polled = buffer.pollOldest();
+
+                assertEquals(added, polled);
+                expected.remove(polled, oldest);
+                continue;
+            }
+
+            // a small area, so the same positions are added again often
+            int x = random.nextInt(16) - 8;
+            int y = random.nextInt(4);
+            int z = random.nextInt(16) - 8;
+            int index = buffer.add(x, y, z);
+
+            long packed = PositionIndexBuffer.pack(x, y, z);
+            expected.put(packed, index);
+            order.add(packed);
+
+            for (int checkX = -8; checkX < 8; checkX++) {
+                for (int checkY = 0; checkY < 4; checkY++) {
+                    for (int checkZ = -8; checkZ < 8; checkZ++) {
+                        int stored = expected.getOrDefault(PositionIndexBuffer.pack(checkX, checkY, checkZ), -1);
+                        assertEquals(stored, buffer.indexOf(checkX, checkY, checkZ));
+                    }
+                }
+            }
+        }
+    }
+}
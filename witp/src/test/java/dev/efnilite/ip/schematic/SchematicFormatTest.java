@@ -0,0 +1,178 @@
+package dev.efnilite.ip.schematic;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchematicFormatTest {
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        // ids and coordinates around every varint length boundary, including negative values for zigzag
+        int[] values = { 0, 1, -1, 63, -64, 64, -65, 127, 128, -129, 16383, 16384, -16385, 2097152, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+        String[] palette = new String[300];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = "minecraft:stone_" + i;
+        }
+        palette[5] = "minecraft:oak_sign[rotation=4,waterlogged=false]";
+        palette[299] = "minecraft:player_head[rotation=0]{\"name\":\"\u00e9\"}";
+
+        int[] ids = new int[values.length];
+        int[] positions = new int[values.length * 3];
+        for (int i = 0; i < values.length; i++) {
+            ids[i] = (i * 37) % palette.length;
+            positions[i * 3] = values[i];
+            positions[i * 3 + 1] = values[values.length - 1 - i];
+            positions[i * 3 + 2] = -values[i];
+        }
+        ids[values.length - 1] = 299;
+
+        SchematicFormat.Data data = new SchematicFormat.Data(new int[] { 1, 128, 20000 }, palette, ids, positions, 3, -1);
+
+        File file = temp();
+        SchematicFormat.writeBinary(file, data);
+
+        assertTrue(SchematicFormat.isBinary(file));
+        assertEqualData(data, SchematicFormat.read(file));
+    }
+
+    @Test
+    void textConvertsToSameBinary() throws IOException {
+        File file = temp();
+        Files.writeString(file.toPath(), """
+                (3.0,2.0,4.0)
+                *
+                0>minecraft:stone
+                1>minecraft:lime_wool
+                2>minecraft:red_wool
+                ~
+                0(0,0,0)/1(1,0,-2)/0(2,1,3)/2(-200,1,300)/1(0,1,0)
+                """, StandardCharsets.UTF_8);
+
+        assertFalse(SchematicFormat.isBinary(file));
+        SchematicFormat.Data text = SchematicFormat.readText(file);
+
+        assertArrayEquals(new int[] { 3, 2, 4 }, text.dimensions());
+        assertEquals(5, text.size());
+        assertEquals(1, text.lime());
+        assertEquals(3, text.red());
+        assertArrayEquals(new int[] { -200, 1, 300 }, Arrays.copyOfRange(text.positions(), 9, 12));
+
+        File binary = temp();
+        SchematicFormat.writeBinary(binary, text);
+        assertEqualData(text, SchematicFormat.readBinary(binary));
+    }
+
+    @Test
+    void rejectsTruncatedBinary() throws IOException {
+        SchematicFormat.Data data = new SchematicFormat.Data(new int[] { 1, 1, 1 }, new String[] { "minecraft:stone" },
+                new int[] { 0, 0 }, new int[] { 0, 0, 0, 1000, -1000, 1000 }, -1, -1);
+
+        File file = temp();
+        SchematicFormat.writeBinary(file, data);
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 2));
+
+        assertThrows(IOException.class, () -> SchematicFormat.readBinary(file));
+    }
+
+    @Test
+    void readsTextThroughBinaryCopy() throws IOException {
+        File folder = Files.createTempDirectory("schematics").toFile();
+        folder.deleteOnExit();
+        File file = new File(folder, "parkour-1.witp");
+        String text = """
+                (1,1,2)
+                *
+                0>minecraft:stone
+                ~
+                0(0,0,0)/0(0,0,1)
+                """;
+        Files.writeString(file.toPath(), text, StandardCharsets.UTF_8);
+
+        SchematicFormat.Data first = SchematicFormat.readCached(file);
+        SchematicFormat.Data second = SchematicFormat.readCached(file);
+
+        // the source file is never changed
+        assertEquals(text, Files.readString(file.toPath(), StandardCharsets.UTF_8));
+        assertEqualData(first, second);
+
+        File cache = new File(folder, SchematicFormat.CACHE_FOLDER);
+        File[] copies = cache.listFiles();
+        assertEquals(1, copies.length);
+        assertTrue(SchematicFormat.isBinary(copies[0]));
+
+        // a changed file replaces its copy
+        Files.writeString(file.toPath(), text.replace("0(0,0,1)", "0(0,0,1)/0(0,1,1)"), StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        assertEquals(3, SchematicFormat.readCached(file).size());
+        assertEquals(1, cache.listFiles().length);
+
+        // deleted in reverse order
+        cache.deleteOnExit();
+        file.deleteOnExit();
+        for (File copy : cache.listFiles()) {
+            copy.deleteOnExit();
+        }
+    }
+
+    @Test
+    void writerMergesBatches() throws IOException {
+        File folder = Files.createTempDirectory("schematics").toFile();
+        folder.deleteOnExit();
+        File file = new File(folder, "parkour-2.witp");
+        file.deleteOnExit();
+
+        SchematicFormat.Batch first = new SchematicFormat.Batch();
+        SchematicFormat.Batch second = new SchematicFormat.Batch();
+        for (int i = 0; i < 300; i++) { // grows past the initial capacity
+            first.add("minecraft:stone", i, 0, -i);
+        }
+        first.add("minecraft:lime_wool", 0, 1, 0);
+        second.add("minecraft:red_wool", 5, 0, 5);
+        second.add("minecraft:lime_wool", 6, 0, 6);
+        second.add("minecraft:stone", 7, 0, 7);
+
+        try (SchematicFormat.Writer writer = new SchematicFormat.Writer(file)) {
+            writer.add(first);
+            writer.add(new SchematicFormat.Batch());
+            writer.add(second);
+            writer.finish(new int[] { 300, 2, 300 });
+        }
+
+        SchematicFormat.Data data = SchematicFormat.read(file);
+        assertEquals(304, data.size());
+        assertArrayEquals(new String[] { "minecraft:stone", "minecraft:lime_wool", "minecraft:red_wool" }, data.palette());
+        assertEquals(300, data.lime());
+        assertEquals(301, data.red());
+        assertEquals(0, data.ids()[303]);
+        assertArrayEquals(new int[] { 299, 0, -299 }, Arrays.copyOfRange(data.positions(), 299 * 3, 300 * 3));
+        assertArrayEquals(new int[] { 7, 0, 7 }, Arrays.copyOfRange(data.positions(), 303 * 3, 304 * 3));
+
+        // no temporary files are left next to the schematic
+        assertArrayEquals(new String[] { file.getName() }, folder.list());
+    }
+
+    private void assertEqualData(SchematicFormat.Data expected, SchematicFormat.Data actual) {
+        assertArrayEquals(expected.dimensions(), actual.dimensions());
+        assertArrayEquals(expected.palette(), actual.palette());
+        assertArrayEquals(expected.ids(), actual.ids());
+        assertArrayEquals(expected.positions(), actual.positions());
+        assertEquals(expected.lime(), actual.lime());
+        assertEquals(expected.red(), actual.red());
+    }
+
+    private File temp() throws IOException {
+        File file = File.createTempFile("schematic", ".witp");
+        file.deleteOnExit();
+        return file;
+    }
+}